@@ -0,0 +1,60 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import boardgame.Position;
+import chess.ChessBoard;
+import chess.ChessMatch;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+	private ChessBoard board;
+	private Position[] positions;
+
+	@Setup
+	public void setup() {
+		board = ChessMatch.fromFen(Positions.KIWIPETE).getBoard();
+		positions = new Position[64];
+		for (int i = 0; i < 64; i++) {
+			positions[i] = new Position(i / 8, i % 8);
+		}
+	}
+
+	@Benchmark
+	public void pieceByPosition(Blackhole bh) {
+		for (int i = 0; i < 64; i++) {
+			bh.consume(board.piece(positions[i]));
+		}
+	}
+
+	@Benchmark
+	public void pieceBySquare(Blackhole bh) {
+		for (int i = 0; i < 64; i++) {
+			bh.consume(board.piece(i));
+		}
+	}
+
+	@Benchmark
+	public void thereIsAPiece(Blackhole bh) {
+		for (int i = 0; i < 64; i++) {
+			bh.consume(board.thereIsAPiece(positions[i]));
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.ChessMatch;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameReplayBenchmark {
+
+	// full game through the validated performChessMove path, from a fresh match
+	@Benchmark
+	public ChessMatch replayOperaGame() {
+		ChessMatch match = new ChessMatch();
+
+		for (String move : Positions.OPERA_GAME) {
+			match.performChessMove(Positions.position(move, 0), Positions.position(move, 2));
+		}
+
+		if (!match.isCheckMate()) {
+			throw new IllegalStateException("Replay did not end in checkmate");
+		}
+
+		return match;
+	}
+}
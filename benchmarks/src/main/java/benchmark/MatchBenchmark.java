@@ -0,0 +1,77 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.ChessBoard;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Color;
+import chess.MoveList;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchBenchmark {
+	private ChessMatch initial;
+	private ChessMatch kiwipete;
+	private ChessMatch checked;
+	private ChessPosition e2 = new ChessPosition('e', 2);
+	private ChessPosition e4 = new ChessPosition('e', 4);
+	private MoveList moves = new MoveList();
+
+	@Setup
+	public void setup() {
+		initial = new ChessMatch();
+		kiwipete = ChessMatch.fromFen(Positions.KIWIPETE);
+		checked = ChessMatch.fromFen(Positions.CHECKED);
+	}
+
+	// includes the undoMove needed to keep the position stable between invocations
+	@Benchmark
+	public ChessPiece performChessMove() {
+		ChessPiece captured = initial.performChessMove(e2, e4);
+		initial.undoMove();
+		return captured;
+	}
+
+	// what the former testCheck(Color) computes for the side to move
+	@Benchmark
+	public boolean testCheck() {
+		ChessBoard board = kiwipete.getBoard();
+		return board.isSquareAttacked(board.kingSquare(Color.WHITE), Color.BLACK);
+	}
+
+	// checkmate is "in check with no legal moves"
+	@Benchmark
+	public boolean testCheckMate() {
+		checked.generateLegalMoves(moves);
+		return checked.isCheck() && moves.isEmpty();
+	}
+
+	@Benchmark
+	public int generateLegalMoves() {
+		kiwipete.generateLegalMoves(moves);
+		return moves.size();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public long perft4() {
+		return kiwipete.perft(4);
+	}
+}
@@ -0,0 +1,70 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import chess.ChessBoard;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Color;
+import chess.MoveList;
+import chess.PieceType;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceMovesBenchmark {
+	@Param({ "PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING" })
+	private PieceType type;
+
+	private ChessPiece[] pieces;
+	private MoveList moves = new MoveList();
+
+	@Setup
+	public void setup() {
+		ChessBoard board = ChessMatch.fromFen(Positions.KIWIPETE).getBoard();
+		List<ChessPiece> list = new ArrayList<ChessPiece>();
+
+		for (int sq = 0; sq < 64; sq++) {
+			ChessPiece p = (ChessPiece) board.piece(sq);
+			if (p != null && p.getColor() == Color.WHITE && p.getType() == type) {
+				list.add(p);
+			}
+		}
+
+		pieces = list.toArray(new ChessPiece[0]);
+	}
+
+	@Benchmark
+	public void possibleMoves(Blackhole bh) {
+		for (ChessPiece p : pieces) {
+			bh.consume(p.possibleMoves());
+		}
+	}
+
+	@Benchmark
+	public int generateMoves() {
+		moves.clear();
+		for (ChessPiece p : pieces) {
+			p.generateMoves(moves);
+		}
+		return moves.size();
+	}
+}
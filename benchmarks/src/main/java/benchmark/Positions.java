@@ -0,0 +1,20 @@
+package benchmark;
+
+import chess.ChessPosition;
+
+final class Positions {
+	static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+	static final String CHECKED = "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3";
+
+	// Morphy vs. Duke of Brunswick and Count Isouard, Paris 1858
+	static final String[] OPERA_GAME = { "e2e4", "e7e5", "g1f3", "d7d6", "d2d4", "c8g4", "d4e5", "g4f3", "d1f3",
+			"d6e5", "f1c4", "g8f6", "f3b3", "d8e7", "b1c3", "c7c6", "c1g5", "b7b5", "c3b5", "c6b5", "c4b5", "b8d7",
+			"e1c1", "a8d8", "d1d7", "d8d7", "h1d1", "e7e6", "b5d7", "f6d7", "b3b8", "d7b8", "d1d8" };
+
+	private Positions() {
+	}
+
+	static ChessPosition position(String move, int offset) {
+		return new ChessPosition(move.charAt(offset), move.charAt(offset + 1) - '0');
+	}
+}
@@ -0,0 +1,68 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.ChessMatch;
+import engine.ParallelSearch;
+import engine.SearchResult;
+import engine.TranspositionTable;
+
+// nodes per second of the Lazy SMP search as threads are added, run with -p threads=1,2,4,...
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+	@Param({ "1", "2", "4", "8", "16", "32" })
+	private int threads;
+
+	private ParallelSearch search;
+	private ChessMatch kiwipete;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Nodes {
+		public long nodes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			nodes = 0;
+		}
+	}
+
+	@Setup
+	public void setup() {
+		search = new ParallelSearch(new TranspositionTable(64), threads);
+		kiwipete = ChessMatch.fromFen(Positions.KIWIPETE);
+	}
+
+	@TearDown
+	public void tearDown() {
+		search.close();
+	}
+
+	// each invocation is a 100 ms search, the nodes counter gives the nodes/s figure
+	@Benchmark
+	public int fixedTime(Nodes counter) {
+		SearchResult result = search.search(kiwipete, 0, 100, 0);
+		counter.nodes += result.getNodes();
+		return result.getBestMove();
+	}
+}
@@ -0,0 +1,45 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import chess.ChessMatch;
+import chess.archive.GameArchive;
+import chess.archive.GameArchiveWriter;
+import engine.OpeningBookBuilder;
+
+public class Archive {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 3 && args[0].equals("convert")) {
+			long start = System.nanoTime();
+			long games = GameArchiveWriter.convert(Paths.get(args[1]), Paths.get(args[2]));
+			System.out.println(games + " games written in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+		} else if (args.length == 2 && args[0].equals("scan")) {
+			try (GameArchive archive = new GameArchive(Paths.get(args[1]))) {
+				ChessMatch match = new ChessMatch();
+				long plies = 0;
+				long start = System.nanoTime();
+
+				for (long game = 0; game < archive.size(); game++) {
+					archive.replay(game, match);
+					plies += archive.length(game);
+				}
+
+				long millis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+				System.out.println(archive.size() + " games, " + plies + " plies replayed in " + millis + " ms ("
+						+ plies * 1000 / millis + " plies/s)");
+			}
+		} else if ((args.length == 3 || args.length == 4) && args[0].equals("book")) {
+			int plies = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+			OpeningBookBuilder builder = new OpeningBookBuilder();
+			try (GameArchive archive = new GameArchive(Paths.get(args[1]))) {
+				builder.addGames(archive, plies);
+			}
+			builder.write(Paths.get(args[2]));
+			System.out.println(builder.size() + " book entries written");
+		} else {
+			System.out.println("Usage: Archive convert <file.pgn> <file.cga> | scan <file.cga> | book <file.cga> <file.book> [plies]");
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package application;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import engine.TableSizeCheck;
+import server.GameServer;
+import server.Session;
+import server.SessionManager;
+
+// regression checks of the behaviour perft doesn't cover, exits with 1 when any of them fails
+public class Checks {
+
+	// positions loadFen has to refuse, each with the reason
+	private static final String[][] INVALID_FENS = {
+			{ "pawn on the last rank", "P3k3/8/8/8/8/8/8/4K3 w - - 0 1" },
+			{ "pawn on the first rank", "4k3/8/8/8/8/8/8/p3K3 b - - 0 1" },
+			{ "missing king", "8/8/8/8/8/8/8/4K3 w - - 0 1" },
+			{ "two kings", "4k3/8/8/8/8/8/8/3KK3 w - - 0 1" },
+			{ "side not to move in check", "4k3/8/8/8/8/8/8/4RK2 w - - 0 1" },
+			{ "en passant square on the wrong rank", "4k3/8/8/3pP3/8/8/8/4K3 w - d5 0 1" },
+			{ "en passant square without the pawn", "4k3/8/8/4P3/8/8/8/4K3 w - d6 0 1" },
+			{ "en passant square occupied", "4k3/8/3n4/3pP3/8/8/8/4K3 w - d6 0 1" },
+			{ "en passant pawn of the side to move", "4k3/8/8/3PP3/8/8/8/4K3 w - d6 0 1" } };
+
+	public static void main(String[] args) throws IOException {
+		boolean ok = true;
+
+		ok &= checkInvalidFens();
+		ok &= TableSizeCheck.run();
+		ok &= checkServer();
+
+		System.out.println();
+		System.out.println(ok ? "All checks passed" : "Some checks FAILED");
+		if (!ok) System.exit(1);
+	}
+
+	private static boolean checkInvalidFens() {
+		boolean ok = true;
+
+		for (String[] invalid : INVALID_FENS) {
+			boolean passed;
+			try {
+				ChessMatch.fromFen(invalid[1]);
+				passed = false;
+			} catch (ChessException e) {
+				passed = true;
+			}
+			ok &= passed;
+			System.out.println("rejects " + invalid[0] + (passed ? " OK" : " FAILED") + ": " + invalid[1]);
+		}
+
+		return ok;
+	}
+
+	// a round trip against the game server on localhost: create, move, evict, then read the restored game
+	private static boolean checkServer() throws IOException {
+		boolean ok = true;
+
+		try (GameServer server = new GameServer(new SessionManager(), 0, 60_000)) {
+			server.start();
+			String games = "http://127.0.0.1:" + server.getPort() + "/games";
+
+			String[] created = request("POST", games, "");
+			String id = created[1].trim();
+			ok &= check("create", created[0].equals("201"));
+
+			String[] moved = request("POST", games + "/" + id + "/moves", "e2e4");
+			ok &= check("move", moved[0].equals("200") && moved[1].startsWith(
+					"rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1"));
+			ok &= check("promotion suffix on a move that doesn't promote",
+					request("POST", games + "/" + id + "/moves", "e7e5q")[0].equals("400"));
+
+			Session session = server.getSessions().get(id);
+			ok &= check("evict", server.getSessions().evictIdle(0) == 1 && session.isEvicted());
+			String[] restored = request("GET", games + "/" + id, "");
+			ok &= check("restore", restored[0].equals("200") && restored[1].equals(moved[1]) && !session.isEvicted());
+
+			ok &= check("path outside /games", request("GET", games + "X/" + id, "")[0].equals("404"));
+
+			String pawn = request("POST", games, "7k/4P3/8/8/8/8/8/4K3 w - - 0 1")[1].trim();
+			String before = request("GET", games + "/" + pawn, "")[1];
+			ok &= check("promotion to an unknown piece",
+					request("POST", games + "/" + pawn + "/moves", "e7e8x")[0].equals("400")
+							&& request("POST", games + "/" + pawn + "/moves", "e7e8k")[0].equals("400")
+							&& request("GET", games + "/" + pawn, "")[1].equals(before));
+			String[] promoted = request("POST", games + "/" + pawn + "/moves", "e7e8n");
+			ok &= check("promotion", promoted[0].equals("200") && promoted[1].startsWith("4N2k/"));
+		}
+
+		return ok;
+	}
+
+	private static boolean check(String name, boolean passed) {
+		System.out.println("server " + name + (passed ? " OK" : " FAILED"));
+		return passed;
+	}
+
+	// the status code and the text answered
+	private static String[] request(String method, String url, String body) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setRequestMethod(method);
+		if (!body.isEmpty()) {
+			connection.setDoOutput(true);
+			try (OutputStream out = connection.getOutputStream()) {
+				out.write(body.getBytes(StandardCharsets.US_ASCII));
+			}
+		}
+
+		int status = connection.getResponseCode();
+		InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+		ByteArrayOutputStream text = new ByteArrayOutputStream();
+		if (in != null) {
+			try (InputStream stream = in) {
+				byte[] buffer = new byte[256];
+				int read;
+				while ((read = stream.read(buffer)) > 0) {
+					text.write(buffer, 0, read);
+				}
+			}
+		}
+		connection.disconnect();
+
+		return new String[] { String.valueOf(status), new String(text.toByteArray(), StandardCharsets.US_ASCII) };
+	}
+}
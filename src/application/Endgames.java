@@ -0,0 +1,37 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import chess.ChessMatch;
+import engine.Tablebase;
+import engine.TablebaseGenerator;
+
+public class Endgames {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 2 && args[0].equals("generate")) {
+			long start = System.nanoTime();
+			new TablebaseGenerator().generateAll(Paths.get(args[1]));
+			System.out.println("Tables written in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+		} else if (args.length > 2 && args[0].equals("probe")) {
+			StringBuilder fen = new StringBuilder();
+			for (int i = 2; i < args.length; i++) {
+				fen.append(args[i]).append(' ');
+			}
+
+			try (Tablebase tablebase = new Tablebase(Paths.get(args[1]), 64)) {
+				ChessMatch match = ChessMatch.fromFen(fen.toString());
+				int result = tablebase.probe(match);
+				if (result == Tablebase.WIN || result == Tablebase.LOSS) {
+					System.out.println((result == Tablebase.WIN ? "win" : "loss") + ", mate in "
+							+ tablebase.distanceToMate(match) + " plies");
+				} else {
+					System.out.println(result == Tablebase.DRAW ? "draw" : "unknown");
+				}
+			}
+		} else {
+			System.out.println("Usage: Endgames generate <dir> | probe <dir> <fen>");
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package application;
+
+import java.util.Map;
+
+import chess.ChessMatch;
+
+public class Perft {
+	private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	// name, FEN and the known node counts from depth 1 onwards
+	private static final Object[][] POSITIONS = {
+			{ "initial", START, new long[] { 20, 400, 8902, 197281, 4865609, 119060324 } },
+			{ "kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+					new long[] { 48, 2039, 97862, 4085603, 193690690 } },
+			{ "position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+					new long[] { 14, 191, 2812, 43238, 674624, 11030083 } },
+			{ "position 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+					new long[] { 6, 264, 9467, 422333, 15833292 } },
+			{ "position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+					new long[] { 44, 1486, 62379, 2103487, 89941194 } },
+			{ "position 6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+					new long[] { 46, 2079, 89890, 3894594, 164075551 } } };
+
+	public static void main(String[] args) {
+		String command = args.length > 0 ? args[0] : "suite";
+
+		if (command.equals("suite")) {
+			int maxDepth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+			if (!runSuite(maxDepth)) {
+				System.exit(1);
+			}
+		} else if (command.equals("perft") && args.length > 1) {
+			ChessMatch match = ChessMatch.fromFen(args.length > 2 ? joinFen(args) : START);
+			int depth = Integer.parseInt(args[1]);
+
+			long start = System.nanoTime();
+			long nodes = match.perft(depth);
+			report("perft " + depth, nodes, System.nanoTime() - start);
+		} else if (command.equals("divide") && args.length > 1) {
+			ChessMatch match = ChessMatch.fromFen(args.length > 2 ? joinFen(args) : START);
+
+			long total = 0;
+			for (Map.Entry<String, Long> entry : match.divide(Integer.parseInt(args[1])).entrySet()) {
+				System.out.println(entry.getKey() + ": " + entry.getValue());
+				total += entry.getValue();
+			}
+			System.out.println();
+			System.out.println("Nodes: " + total);
+		} else {
+			System.out.println("Usage: Perft [suite [maxDepth]] | perft <depth> [fen] | divide <depth> [fen]");
+		}
+	}
+
+	private static boolean runSuite(int maxDepth) {
+		boolean ok = true;
+		long totalNodes = 0;
+		long totalTime = 0;
+
+		for (Object[] position : POSITIONS) {
+			String name = (String) position[0];
+			long[] expected = (long[]) position[2];
+			ChessMatch match = ChessMatch.fromFen((String) position[1]);
+
+			for (int depth = 1; depth <= Math.min(maxDepth, expected.length); depth++) {
+				long start = System.nanoTime();
+				long nodes = match.perft(depth);
+				long elapsed = System.nanoTime() - start;
+				totalNodes += nodes;
+				totalTime += elapsed;
+
+				boolean passed = nodes == expected[depth - 1];
+				ok &= passed;
+				report(name + " depth " + depth + (passed ? " OK" : " FAILED, expected " + expected[depth - 1]),
+						nodes, elapsed);
+			}
+		}
+
+		System.out.println();
+		report(ok ? "All positions passed" : "Some positions FAILED", totalNodes, totalTime);
+		return ok;
+	}
+
+	private static void report(String label, long nodes, long nanos) {
+		long nps = nanos > 0 ? nodes * 1_000_000_000L / nanos : 0;
+		System.out.println(label + ": " + nodes + " nodes in " + nanos / 1_000_000 + " ms (" + nps + " nodes/s)");
+	}
+
+	private static String joinFen(String[] args) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 2; i < args.length; i++) {
+			sb.append(args[i]).append(' ');
+		}
+		return sb.toString();
+	}
+}
@@ -17,7 +17,7 @@ public class Program {
 		ChessMatch chessMatch = new ChessMatch();
 		Scanner sc = new Scanner(System.in);
 
-		while (!chessMatch.isCheckMate()) {
+		while (!chessMatch.isCheckMate() && !chessMatch.isDraw()) {
 			try {
 				UI.clearScreen();
 				UI.printMatch(chessMatch, captureds);
@@ -0,0 +1,19 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import chess.pgn.PgnReplayer;
+
+public class Replay {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("Usage: Replay <file.pgn> [threads]");
+			return;
+		}
+
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		System.out.println(new PgnReplayer(threads).replay(Paths.get(args[0]), null));
+	}
+}
@@ -0,0 +1,18 @@
+package application;
+
+import java.io.IOException;
+
+import server.GameServer;
+import server.SessionManager;
+
+public class Server {
+
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+		long idleSeconds = args.length > 1 ? Long.parseLong(args[1]) : 300;
+
+		GameServer server = new GameServer(new SessionManager(), port, idleSeconds * 1000);
+		server.start();
+		System.out.println("Serving games on http://127.0.0.1:" + server.getPort() + "/games");
+	}
+}
@@ -49,14 +49,22 @@ public class UI {
 		printCapturedPieces(captureds);
 		System.out.println();
 		System.out.println("Turn: " + match.getTurn());
-		if(!match.isCheckMate()) {
+		if(match.isStalemate()) {
+			System.out.println("STALEMATE! The match is a draw");
+		}else if(match.isThreefoldRepetition()) {
+			System.out.println("THREEFOLD REPETITION! The match is a draw");
+		}else if(match.isFiftyMoveDraw()) {
+			System.out.println("FIFTY MOVES! The match is a draw");
+		}else if(!match.isCheckMate()) {
 			System.out.println("Waiting player " + match.getCurrentPlayer() + " move");
 			if(match.isCheck()) {
 				System.out.println("CHECK!");
 			}
 		}else {
+			// the mated side is the one left to move
+			Color winner = match.getCurrentPlayer() == Color.WHITE ? Color.BLACK : Color.WHITE;
 			System.out.println("CHECK MATCH!");
-			System.out.println("The " + match.getCurrentPlayer() + " Player WON!");
+			System.out.println("The " + winner + " Player WON!");
 		}
 		
 	}
@@ -3,14 +3,19 @@ package boardgame;
 public class Board {
 	private int rows;
 	private int columns;
-	private Piece[][] pieces;
+	private Piece[] pieces;
+	private Position[] positions;
 	public Board(int rows, int columns) {
 		if(rows < 1 || columns < 1) throw new BoardException("Error creating board: there must be at least 1 row and 1 column");
 		
 		this.rows = rows;
 		this.columns = columns;
 		
-		pieces = new Piece[rows][columns];
+		pieces = new Piece[rows * columns];
+		positions = new Position[rows * columns];
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = new Position(i / columns, i % columns);
+		}
 	}
 	
 	public int getRows() {
@@ -24,29 +29,51 @@ public class Board {
 	public Piece piece(int row, int column) {
 		if(!this.positionExists(row, column)) throw new BoardException("Position not on the board");
 		
-		return pieces[row][column];
+		return pieces[row * columns + column];
 	}
 	
 	public Piece piece(Position pos) {
 		if(!this.positionExists(pos)) throw new BoardException("Position not on the board");
 		
-		return pieces[pos.getRow()][pos.getColumn()];
+		return pieces[pos.getRow() * columns + pos.getColumn()];
+	}
+	
+	// unchecked lookup by square index (row * columns + column) for the hot paths
+	public Piece piece(int square) {
+		return pieces[square];
+	}
+	
+	// shared instance, must not be mutated by callers
+	public Position position(int square) {
+		return positions[square];
 	}
 	
 	public void placePiece(Piece piece, Position pos) {
-		if(this.thereIsAPiece(pos)) throw new BoardException("There is already piece on the position " + pos);
+		if(!this.positionExists(pos)) throw new BoardException("Position " + pos + " do not exists");
+		
+		placePiece(piece, pos.getRow() * columns + pos.getColumn());
+	}
+	
+	// the square index is not bounds checked, but an occupied square still is
+	public void placePiece(Piece piece, int square) {
+		if(this.pieces[square] != null) throw new BoardException("There is already piece on the position " + positions[square]);
 		
-		this.pieces[pos.getRow()][pos.getColumn()] = piece;
-		piece.position = pos;
+		this.pieces[square] = piece;
+		piece.position = positions[square];
 	}
 	
 	public Piece removePiece(Position pos) {
 		if(!this.positionExists(pos)) throw new BoardException("Position not on the board");
-		if(piece(pos) == null) return null;
 		
-		Piece aux = piece(pos);
+		return removePiece(pos.getRow() * columns + pos.getColumn());
+	}
+	
+	public Piece removePiece(int square) {
+		Piece aux = pieces[square];
+		if(aux == null) return null;
+		
 		aux.position = null;
-		this.pieces[pos.getRow()][pos.getColumn()] = null;
+		this.pieces[square] = null;
 		
 		return aux;
 	}
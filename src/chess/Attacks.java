@@ -0,0 +1,198 @@
+package chess;
+
+public final class Attacks {
+	private static final int[][] ROOK_DIRECTIONS = { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } };
+	private static final int[][] BISHOP_DIRECTIONS = { { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } };
+	private static final int[][] KNIGHT_OFFSETS = { { -2, -1 }, { -2, 1 }, { -1, -2 }, { -1, 2 }, { 1, -2 }, { 1, 2 },
+			{ 2, -1 }, { 2, 1 } };
+	private static final int[][] KING_OFFSETS = { { -1, -1 }, { -1, 0 }, { -1, 1 }, { 0, -1 }, { 0, 1 }, { 1, -1 },
+			{ 1, 0 }, { 1, 1 } };
+
+	private static final long[] KNIGHT_ATTACKS = new long[64];
+	private static final long[] KING_ATTACKS = new long[64];
+	// indexed by Color ordinal, white pawns capture towards row 0
+	private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+	// magic multipliers for the a8 = 0 square layout, found offline with a fixed-seed random search
+	private static final long[] ROOK_MAGICS = {
+			0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L, 0x0880100008000480L,
+			0x4200100420080200L, 0x8100020100080400L, 0x0200040110886200L, 0x0200008040220411L,
+			0x0404800084400220L, 0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+			0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L, 0x0442000102105084L,
+			0x9080010020804100L, 0x0040404000201009L, 0x0000808010002009L, 0x2200090021D00100L,
+			0x0008008008040080L, 0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+			0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L, 0x1000100080080080L,
+			0x0050500500080100L, 0x0000020080040080L, 0x0C10010400420810L, 0x1040008200005104L,
+			0x01808240088004A0L, 0x0882804004802000L, 0x0880402001001100L, 0x2000210409001000L,
+			0x2000480131001500L, 0x0000800400800200L, 0x000002380C001003L, 0x4600084882000431L,
+			0x0080002000504000L, 0x0300500020004002L, 0x0040408200220011L, 0x0010040008004040L,
+			0x0000080004008080L, 0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+			0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L, 0x0801100280080480L,
+			0x0242009008200600L, 0x1002000489500200L, 0x0040800200010080L, 0x0091800041000080L,
+			0x0000209300488001L, 0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+			0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L, 0x4000002840840112L };
+
+	private static final long[] BISHOP_MAGICS = {
+			0x20C0090901061081L, 0x0024040094030104L, 0x8210810200290200L, 0x0011040484620000L,
+			0x0081104002221000L, 0x0009012011001350L, 0x0081010802400380L, 0x0000420210010408L,
+			0x0008105002280050L, 0x0001028484040044L, 0x2A00880810408804L, 0x7020022282000100L,
+			0x0084040420100A50L, 0x000401010840E000L, 0x2020020210420888L, 0x0008084202012010L,
+			0x2010400810018800L, 0x0445122008020840L, 0x0804100808002008L, 0x0008002104110100L,
+			0x0061005820080800L, 0x2001000200820100L, 0x480C210084010800L, 0x3004442500480420L,
+			0x1010102240048100L, 0x00182009084220A3L, 0x8803090A10004205L, 0x0208080040202020L,
+			0x000C044084010040L, 0x00A1010002004106L, 0x6008210020640202L, 0x1600902112860801L,
+			0x00042008C1220200L, 0x010C042002440140L, 0x5022080200040820L, 0x0402004042940100L,
+			0x0860108400008020L, 0x000C080022021000L, 0x0264080652822100L, 0x4005031221010401L,
+			0x0004502410008400L, 0x000500B010A20400L, 0x0415094050080800L, 0x080000201800A104L,
+			0x4022A80304000110L, 0x4012140802028020L, 0x40200104010100A0L, 0x12810806008B0C41L,
+			0x0020441008080000L, 0x2002120084045420L, 0x0704020062080002L, 0x0000001084040001L,
+			0x0322200891240200L, 0xF040200210024800L, 0x0140824832008042L, 0x000210020A004602L,
+			0x0083042805141020L, 0x002C12009A011000L, 0x0041A00044140400L, 0x00004004020A0202L,
+			0x0000140010020210L, 0x2864160811012200L, 0x2060080841082A17L, 0xA010041108003100L };
+
+	private static final long[] ROOK_MASKS = new long[64];
+	private static final int[] ROOK_SHIFTS = new int[64];
+	private static final int[] ROOK_OFFSETS = new int[64];
+
+	private static final long[] BISHOP_MASKS = new long[64];
+	private static final int[] BISHOP_SHIFTS = new int[64];
+	private static final int[] BISHOP_OFFSETS = new int[64];
+
+	// squares strictly between two aligned squares, and the full line through them
+	private static final long[][] BETWEEN = new long[64][64];
+	private static final long[][] LINE = new long[64][64];
+
+	// rook and bishop attack sets for every relevant occupancy, addressed by offset + magic index
+	private static final long[] SLIDING_ATTACKS;
+
+	static {
+		int size = 0;
+		for (int sq = 0; sq < 64; sq++) {
+			ROOK_MASKS[sq] = relevantMask(sq, ROOK_DIRECTIONS);
+			BISHOP_MASKS[sq] = relevantMask(sq, BISHOP_DIRECTIONS);
+			ROOK_OFFSETS[sq] = size;
+			size += 1 << Long.bitCount(ROOK_MASKS[sq]);
+			BISHOP_OFFSETS[sq] = size;
+			size += 1 << Long.bitCount(BISHOP_MASKS[sq]);
+		}
+		SLIDING_ATTACKS = new long[size];
+
+		for (int sq = 0; sq < 64; sq++) {
+			initSlider(sq, ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS);
+			initSlider(sq, BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS);
+
+			KNIGHT_ATTACKS[sq] = leaperAttacks(sq, KNIGHT_OFFSETS);
+			KING_ATTACKS[sq] = leaperAttacks(sq, KING_OFFSETS);
+			PAWN_ATTACKS[Color.WHITE.ordinal()][sq] = leaperAttacks(sq, new int[][] { { -1, -1 }, { -1, 1 } });
+			PAWN_ATTACKS[Color.BLACK.ordinal()][sq] = leaperAttacks(sq, new int[][] { { 1, -1 }, { 1, 1 } });
+		}
+
+		for (int a = 0; a < 64; a++) {
+			for (int b = 0; b < 64; b++) {
+				long ab = (1L << a) | (1L << b);
+				if (a != b && (rook(a, 0) & (1L << b)) != 0) {
+					BETWEEN[a][b] = rook(a, 1L << b) & rook(b, 1L << a);
+					LINE[a][b] = (rook(a, 0) & rook(b, 0)) | ab;
+				} else if (a != b && (bishop(a, 0) & (1L << b)) != 0) {
+					BETWEEN[a][b] = bishop(a, 1L << b) & bishop(b, 1L << a);
+					LINE[a][b] = (bishop(a, 0) & bishop(b, 0)) | ab;
+				}
+			}
+		}
+	}
+
+	private Attacks() {
+	}
+
+	public static long rook(int square, long occupied) {
+		return SLIDING_ATTACKS[ROOK_OFFSETS[square]
+				+ (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+	}
+
+	public static long bishop(int square, long occupied) {
+		return SLIDING_ATTACKS[BISHOP_OFFSETS[square]
+				+ (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+	}
+
+	public static long queen(int square, long occupied) {
+		return rook(square, occupied) | bishop(square, occupied);
+	}
+
+	public static long knight(int square) {
+		return KNIGHT_ATTACKS[square];
+	}
+
+	public static long king(int square) {
+		return KING_ATTACKS[square];
+	}
+
+	public static long pawn(Color color, int square) {
+		return PAWN_ATTACKS[color.ordinal()][square];
+	}
+
+	// empty unless both squares share a rank, file or diagonal
+	public static long between(int a, int b) {
+		return BETWEEN[a][b];
+	}
+
+	public static long line(int a, int b) {
+		return LINE[a][b];
+	}
+
+	private static void initSlider(int sq, int[][] directions, long[] masks, long[] magics, int[] shifts,
+			int[] offsets) {
+		long mask = masks[sq];
+		shifts[sq] = 64 - Long.bitCount(mask);
+
+		// enumerate every subset of the mask (carry-rippler)
+		long subset = 0;
+		do {
+			int index = (int) ((subset * magics[sq]) >>> shifts[sq]);
+			SLIDING_ATTACKS[offsets[sq] + index] = slidingAttacks(sq, subset, directions);
+			subset = (subset - mask) & mask;
+		} while (subset != 0);
+	}
+
+	private static long leaperAttacks(int sq, int[][] offsets) {
+		long attacks = 0;
+		for (int[] d : offsets) {
+			int row = (sq >>> 3) + d[0];
+			int column = (sq & 7) + d[1];
+			if (row >= 0 && row < 8 && column >= 0 && column < 8) {
+				attacks |= 1L << (row * 8 + column);
+			}
+		}
+		return attacks;
+	}
+
+	private static long relevantMask(int sq, int[][] directions) {
+		long mask = 0;
+		for (int[] d : directions) {
+			int row = (sq >>> 3) + d[0];
+			int column = (sq & 7) + d[1];
+			// the last square of each ray never changes the attack set
+			while (row + d[0] >= 0 && row + d[0] < 8 && column + d[1] >= 0 && column + d[1] < 8) {
+				mask |= 1L << (row * 8 + column);
+				row += d[0];
+				column += d[1];
+			}
+		}
+		return mask;
+	}
+
+	private static long slidingAttacks(int sq, long occupied, int[][] directions) {
+		long attacks = 0;
+		for (int[] d : directions) {
+			int row = (sq >>> 3) + d[0];
+			int column = (sq & 7) + d[1];
+			while (row >= 0 && row < 8 && column >= 0 && column < 8) {
+				long bit = 1L << (row * 8 + column);
+				attacks |= bit;
+				if ((occupied & bit) != 0) break;
+				row += d[0];
+				column += d[1];
+			}
+		}
+		return attacks;
+	}
+}
@@ -0,0 +1,58 @@
+package chess;
+
+import boardgame.Position;
+
+public final class Bitboards {
+	// squares are indexed row * 8 + column, row 0 being the 8th rank (a8 = 0, h1 = 63)
+	public static final long FILE_A = 0x0101010101010101L;
+	public static final long FILE_B = FILE_A << 1;
+	public static final long FILE_G = FILE_A << 6;
+	public static final long FILE_H = FILE_A << 7;
+	public static final long RANK_8 = 0xFFL;
+	public static final long RANK_7 = RANK_8 << 8;
+	public static final long RANK_2 = RANK_8 << 48;
+	public static final long RANK_1 = RANK_8 << 56;
+
+	private Bitboards() {
+	}
+
+	public static int square(int row, int column) {
+		return row * 8 + column;
+	}
+
+	public static int square(Position position) {
+		return position.getRow() * 8 + position.getColumn();
+	}
+
+	public static int row(int square) {
+		return square >>> 3;
+	}
+
+	public static int column(int square) {
+		return square & 7;
+	}
+
+	public static long bit(int square) {
+		return 1L << square;
+	}
+
+	public static int first(long bitboard) {
+		return Long.numberOfTrailingZeros(bitboard);
+	}
+
+	public static int count(long bitboard) {
+		return Long.bitCount(bitboard);
+	}
+
+	public static boolean[][] toMatrix(long bitboard) {
+		boolean[][] mat = new boolean[8][8];
+
+		while (bitboard != 0) {
+			int sq = Long.numberOfTrailingZeros(bitboard);
+			mat[sq >>> 3][sq & 7] = true;
+			bitboard &= bitboard - 1;
+		}
+
+		return mat;
+	}
+}
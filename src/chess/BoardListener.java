@@ -0,0 +1,10 @@
+package chess;
+
+// told about every piece a ChessBoard places or removes, so evaluation state can follow makeMove and undoMove
+// incrementally. The piece is its bitboard index, color ordinal * 6 + type ordinal
+public interface BoardListener {
+
+	void placed(int piece, int square);
+
+	void removed(int piece, int square);
+}
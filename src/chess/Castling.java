@@ -0,0 +1,40 @@
+package chess;
+
+public final class Castling {
+	public static final int WHITE_KING_SIDE = 1;
+	public static final int WHITE_QUEEN_SIDE = 2;
+	public static final int BLACK_KING_SIDE = 4;
+	public static final int BLACK_QUEEN_SIDE = 8;
+
+	public static final int ALL = 15;
+
+	// rights kept when a move starts or ends on the square, clearing them once a king or rook leaves or is captured
+	private static final int[] MASKS = new int[64];
+
+	static {
+		for (int sq = 0; sq < 64; sq++) {
+			MASKS[sq] = ALL;
+		}
+		MASKS[Bitboards.square(7, 4)] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+		MASKS[Bitboards.square(7, 7)] &= ~WHITE_KING_SIDE;
+		MASKS[Bitboards.square(7, 0)] &= ~WHITE_QUEEN_SIDE;
+		MASKS[Bitboards.square(0, 4)] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+		MASKS[Bitboards.square(0, 7)] &= ~BLACK_KING_SIDE;
+		MASKS[Bitboards.square(0, 0)] &= ~BLACK_QUEEN_SIDE;
+	}
+
+	private Castling() {
+	}
+
+	public static int mask(int square) {
+		return MASKS[square];
+	}
+
+	public static int kingSide(Color color) {
+		return color == Color.WHITE ? WHITE_KING_SIDE : BLACK_KING_SIDE;
+	}
+
+	public static int queenSide(Color color) {
+		return color == Color.WHITE ? WHITE_QUEEN_SIDE : BLACK_QUEEN_SIDE;
+	}
+}
@@ -0,0 +1,170 @@
+package chess;
+
+import boardgame.Board;
+import boardgame.BoardException;
+import boardgame.Piece;
+import boardgame.Position;
+
+public class ChessBoard extends Board {
+	private long[] bitboards = new long[12];
+	private long[] colors = new long[2];
+	private long occupied;
+	private int[] kingSquares = { -1, -1 };
+	// bitboard index of the piece on each square, so removing a piece doesn't ask it its color and type
+	private byte[] indexes = new byte[64];
+	// Zobrist key of the piece placement alone
+	private long key;
+	// Zobrist key of the pawns alone, for the pawn structure cache
+	private long pawnKey;
+	// material and piece-square sums from white's side, and the game phase, kept up to date like the key
+	private int midgame;
+	private int endgame;
+	private int phase;
+	private BoardListener listener;
+
+	public ChessBoard() {
+		super(8, 8);
+	}
+
+	@Override
+	public void placePiece(Piece piece, int square) {
+		super.placePiece(piece, square);
+
+		ChessPiece p = (ChessPiece) piece;
+		int index = index(p.getColor(), p.getType());
+		long bit = 1L << square;
+		bitboards[index] |= bit;
+		colors[index / 6] |= bit;
+		occupied |= bit;
+		key ^= Zobrist.piece(index, square);
+		indexes[square] = (byte) index;
+		midgame += PieceSquareTables.midgame(index, square);
+		endgame += PieceSquareTables.endgame(index, square);
+		phase += PieceSquareTables.phase(index);
+
+		if (index % 6 == PieceType.PAWN.ordinal()) {
+			pawnKey ^= Zobrist.piece(index, square);
+		} else if (index % 6 == PieceType.KING.ordinal()) {
+			kingSquares[index / 6] = square;
+		}
+
+		if (listener != null) listener.placed(index, square);
+	}
+
+	@Override
+	public Piece removePiece(int square) {
+		Piece p = super.removePiece(square);
+		if (p == null) return null;
+
+		int index = indexes[square];
+		long bit = ~(1L << square);
+		bitboards[index] &= bit;
+		colors[index / 6] &= bit;
+		occupied &= bit;
+		key ^= Zobrist.piece(index, square);
+		midgame -= PieceSquareTables.midgame(index, square);
+		endgame -= PieceSquareTables.endgame(index, square);
+		phase -= PieceSquareTables.phase(index);
+
+		if (index % 6 == PieceType.PAWN.ordinal()) {
+			pawnKey ^= Zobrist.piece(index, square);
+		} else if (index % 6 == PieceType.KING.ordinal()) {
+			kingSquares[index / 6] = -1;
+		}
+
+		if (listener != null) listener.removed(index, square);
+
+		return p;
+	}
+
+	@Override
+	public boolean thereIsAPiece(Position position) {
+		if (!positionExists(position)) throw new BoardException("Position " + position + " do not exists");
+
+		return (occupied & (1L << Bitboards.square(position))) != 0;
+	}
+
+	// one listener at a time, null to stop notifying
+	public void setListener(BoardListener listener) {
+		this.listener = listener;
+	}
+
+	public long bitboard(Color color, PieceType type) {
+		return bitboards[index(color, type)];
+	}
+
+	public long bitboard(PieceType type) {
+		return bitboards[type.ordinal()] | bitboards[6 + type.ordinal()];
+	}
+
+	public long occupancy(Color color) {
+		return colors[color.ordinal()];
+	}
+
+	public long occupancy() {
+		return occupied;
+	}
+
+	public long key() {
+		return key;
+	}
+
+	public long pawnKey() {
+		return pawnKey;
+	}
+
+	public int midgameScore() {
+		return midgame;
+	}
+
+	public int endgameScore() {
+		return endgame;
+	}
+
+	// PieceSquareTables.MAX_PHASE with every piece on the board, 0 with only kings and pawns; promotions can
+	// push it above the maximum
+	public int phase() {
+		return phase;
+	}
+
+	// bitboard index of the piece on an occupied square, meaningless for an empty one
+	int pieceIndex(int square) {
+		return indexes[square];
+	}
+
+	// -1 when that king is not on the board
+	public int kingSquare(Color color) {
+		return kingSquares[color.ordinal()];
+	}
+
+	// looks outward from the square with each piece's attack pattern, reversed
+	public boolean isSquareAttacked(int square, Color byColor) {
+		int base = byColor.ordinal() * 6;
+		Color defender = byColor == Color.WHITE ? Color.BLACK : Color.WHITE;
+
+		if ((Attacks.pawn(defender, square) & bitboards[base + PieceType.PAWN.ordinal()]) != 0) return true;
+		if ((Attacks.knight(square) & bitboards[base + PieceType.KNIGHT.ordinal()]) != 0) return true;
+		if ((Attacks.king(square) & bitboards[base + PieceType.KING.ordinal()]) != 0) return true;
+
+		long queens = bitboards[base + PieceType.QUEEN.ordinal()];
+		if ((Attacks.bishop(square, occupied) & (bitboards[base + PieceType.BISHOP.ordinal()] | queens)) != 0) return true;
+
+		return (Attacks.rook(square, occupied) & (bitboards[base + PieceType.ROOK.ordinal()] | queens)) != 0;
+	}
+
+	public long attackersTo(int square, long occupied) {
+		long bishops = bitboard(PieceType.BISHOP) | bitboard(PieceType.QUEEN);
+		long rooks = bitboard(PieceType.ROOK) | bitboard(PieceType.QUEEN);
+
+		return (Attacks.pawn(Color.WHITE, square) & bitboard(Color.BLACK, PieceType.PAWN))
+				| (Attacks.pawn(Color.BLACK, square) & bitboard(Color.WHITE, PieceType.PAWN))
+				| (Attacks.knight(square) & bitboard(PieceType.KNIGHT))
+				| (Attacks.king(square) & bitboard(PieceType.KING))
+				| (Attacks.bishop(square, occupied) & bishops)
+				| (Attacks.rook(square, occupied) & rooks);
+	}
+
+	private static int index(Color color, PieceType type) {
+		return color.ordinal() * 6 + type.ordinal();
+	}
+}
@@ -1,10 +1,11 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
-import boardgame.Board;
 import boardgame.Piece;
 import boardgame.Position;
 import chess.pieces.Bishop;
@@ -15,22 +16,174 @@ import chess.pieces.Queen;
 import chess.pieces.Rook;
 
 public class ChessMatch {
-	private Board board;
+	private static final String FEN_PIECES = "PNBRQK";
+	private static final Color[] COLORS = Color.values();
+
+	private ChessBoard board;
 	private int turn;
 	private Color currentPlayer;
 	private boolean check;
 	private boolean checkMate;
+	private boolean stalemate;
 	private ChessPiece enPassantVulnerable;
 	private ChessPiece promoted;
-
-	private List<Piece> piecesOnTheBoard = new ArrayList<Piece>();
+	private int castlingRights;
+	// plies since the last capture or pawn move
+	private int halfmoveClock;
+	// castling, en passant and side to move part of the position key, the board keeps the placement part
+	private long stateKey;
+
+	// the pieces on the board are kept by color and type in the ChessBoard bitboards; captures are undone in
+	// reverse order, so the captured pieces are a stack
 	private List<Piece> capturedPieces = new ArrayList<Piece>();
 
+	// undo stack of makeMove, one entry per ply
+	private int ply;
+	private int[] moveHistory = new int[256];
+	private Piece[] capturedHistory = new Piece[256];
+	private ChessPiece[] enPassantHistory = new ChessPiece[256];
+	private ChessPiece[] promotedPawnHistory = new ChessPiece[256];
+	private boolean[] checkHistory = new boolean[256];
+	private int[] castlingHistory = new int[256];
+	private int[] halfmoveHistory = new int[256];
+	private long[] stateKeyHistory = new long[256];
+	// keys of the positions played before the current one, kept past a restore for repetition detection
+	private long[] keyHistory = new long[256];
+	private int keyCount;
+
+	// preallocated buffers so move validation, exchange evaluation and end of game tests don't allocate
+	private MoveList validationMoves = new MoveList();
+	private MoveList legalMoves = new MoveList();
+	private int[] exchangeGains = new int[StaticExchange.MAX_DEPTH];
+	// pieces dropped by setFen and restore, indexed like the board bitboards and handed out again by reusePiece
+	private ChessPiece[][] sparePieces;
+	private int[] spareCounts;
+
 	public ChessMatch() {
-		this.board = new Board(8, 8);
+		this.board = new ChessBoard();
 		this.initialSetup();
 		turn = 1;
 		currentPlayer = Color.WHITE;
+		castlingRights = Castling.ALL;
+		stateKey = computeStateKey();
+	}
+
+	private ChessMatch(String fen) {
+		this.board = new ChessBoard();
+		this.loadFen(fen);
+	}
+
+	private ChessMatch(Snapshot snapshot) {
+		this.board = new ChessBoard();
+		this.load(snapshot);
+	}
+
+	public static ChessMatch fromFen(String fen) {
+		return new ChessMatch(fen);
+	}
+
+	public static ChessMatch fromSnapshot(Snapshot snapshot) {
+		return new ChessMatch(snapshot);
+	}
+
+	// independent match on the same position, without the undo history
+	public ChessMatch copy() {
+		return new ChessMatch(snapshot());
+	}
+
+	public Snapshot snapshot() {
+		byte[] squares = new byte[64];
+		byte[] moveCounts = new byte[64];
+
+		long occupied = board.occupancy();
+		while (occupied != 0) {
+			int square = Long.numberOfTrailingZeros(occupied);
+			ChessPiece p = (ChessPiece) board.piece(square);
+			squares[square] = Snapshot.code(p.getColor(), p.getType());
+			moveCounts[square] = (byte) Math.min(p.getMoveCount(), Byte.MAX_VALUE);
+			occupied &= occupied - 1;
+		}
+
+		byte[] captured = new byte[capturedPieces.size()];
+		for (int i = 0; i < captured.length; i++) {
+			ChessPiece p = (ChessPiece) capturedPieces.get(i);
+			captured[i] = Snapshot.code(p.getColor(), p.getType());
+		}
+
+		// positions before the last capture or pawn move can't come back
+		long[] keys = Arrays.copyOfRange(keyHistory, Math.max(keyCount - halfmoveClock, 0), keyCount);
+
+		return new Snapshot(squares, moveCounts, captured, turn, halfmoveClock, currentPlayer, castlingRights,
+				enPassantVulnerable == null ? -1 : enPassantVulnerable.getSquare(), check, checkMate, stalemate,
+				positionKey(), keys);
+	}
+
+	// copy-make: puts this match back on the snapshot's position, dropping the undo history
+	public void restore(Snapshot snapshot) {
+		clearPosition();
+		load(snapshot);
+	}
+
+	private void clearPosition() {
+		if (sparePieces == null) {
+			sparePieces = new ChessPiece[12][16];
+			spareCounts = new int[12];
+		}
+
+		long occupied = board.occupancy();
+		while (occupied != 0) {
+			releasePiece((ChessPiece) board.removePiece(Long.numberOfTrailingZeros(occupied)));
+			occupied &= occupied - 1;
+		}
+
+		for (Piece p : capturedPieces) {
+			releasePiece((ChessPiece) p);
+		}
+		capturedPieces.clear();
+		Arrays.fill(capturedHistory, 0, ply, null);
+		Arrays.fill(enPassantHistory, 0, ply, null);
+		Arrays.fill(promotedPawnHistory, 0, ply, null);
+		ply = 0;
+		keyCount = 0;
+
+		enPassantVulnerable = null;
+		promoted = null;
+		checkMate = false;
+		stalemate = false;
+	}
+
+	private void load(Snapshot snapshot) {
+		for (int square = 0; square < 64; square++) {
+			int code = snapshot.code(square);
+			if (code != 0) {
+				ChessPiece piece = reusePiece(Snapshot.type(code), Snapshot.color(code));
+				piece.moveCount = snapshot.moveCount(square);
+				board.placePiece(piece, square);
+			}
+		}
+
+		for (int i = 0; i < snapshot.capturedCount(); i++) {
+			int code = snapshot.capturedCode(i);
+			capturedPieces.add(reusePiece(Snapshot.type(code), Snapshot.color(code)));
+		}
+
+		int enPassantSquare = snapshot.getEnPassantSquare();
+		enPassantVulnerable = enPassantSquare < 0 ? null : (ChessPiece) board.piece(enPassantSquare);
+		promoted = null;
+		turn = snapshot.getTurn();
+		currentPlayer = snapshot.getCurrentPlayer();
+		check = snapshot.isCheck();
+		checkMate = snapshot.isCheckMate();
+		stalemate = snapshot.isStalemate();
+		castlingRights = snapshot.getCastlingRights();
+		halfmoveClock = snapshot.getHalfmoveClock();
+		stateKey = computeStateKey();
+
+		keyCount = snapshot.keyCount();
+		if (keyCount > keyHistory.length) keyHistory = new long[Integer.highestOneBit(keyCount) * 2];
+		for (int i = 0; i < keyCount; i++) {
+			keyHistory[i] = snapshot.key(i);
+		}
 	}
 
 	public int getTurn() {
@@ -45,10 +198,65 @@ public class ChessMatch {
 		return checkMate;
 	}
 
+	public boolean isStalemate() {
+		return stalemate;
+	}
+
 	public Color getCurrentPlayer() {
 		return currentPlayer;
 	}
 
+	public ChessBoard getBoard() {
+		return board;
+	}
+
+	// 64-bit Zobrist key of the position, updated incrementally by makeMove and undoMove
+	public long positionKey() {
+		return board.key() ^ stateKey;
+	}
+
+	public int getCastlingRights() {
+		return castlingRights;
+	}
+
+	public int getHalfmoveClock() {
+		return halfmoveClock;
+	}
+
+	public int getFullmoveNumber() {
+		return (turn + 1) / 2;
+	}
+
+	// the position occurred before since the last capture or pawn move, which is the draw the search scores
+	public boolean isRepetition() {
+		return repeated(1);
+	}
+
+	public boolean isThreefoldRepetition() {
+		return repeated(2);
+	}
+
+	// a hundred plies without a capture or pawn move, unless the last one mated
+	public boolean isFiftyMoveDraw() {
+		return halfmoveClock >= 100 && !checkMate;
+	}
+
+	public boolean isDraw() {
+		return stalemate || isFiftyMoveDraw() || isThreefoldRepetition();
+	}
+
+	// scans back only to the last irreversible move, and only the positions with the same side to move
+	private boolean repeated(int times) {
+		long key = positionKey();
+		int end = Math.max(keyCount - halfmoveClock, 0);
+
+		for (int i = keyCount - 4; i >= end; i -= 2) {
+			if (keyHistory[i] == key && --times == 0) return true;
+		}
+
+		return false;
+	}
+
 	public ChessPiece[][] getPieces() {
 		ChessPiece[][] mat = new ChessPiece[board.getRows()][board.getColumns()];
 
@@ -65,7 +273,24 @@ public class ChessMatch {
 		Position pos = originPosition.toPosition();
 		validateOriginPosition(pos);
 
-		return board.piece(pos).possibleMoves();
+		return Bitboards.toMatrix(validationMoves.targets(Bitboards.square(pos)));
+	}
+
+	public void generateLegalMoves(MoveList moves) {
+		moves.clear();
+		MoveGenerator.generate(board, currentPlayer, castlingRights, enPassantSquare(), moves);
+	}
+
+	// material won by the move once every capture back and forth on its target square is played out, in
+	// centipawns for the side to move; negative for a losing capture
+	public int see(int move) {
+		return StaticExchange.see(board, move, exchangeGains);
+	}
+
+	// legal captures and promotions only, the moves a quiescence search looks at
+	public void generateLegalCaptures(MoveList moves) {
+		moves.clear();
+		MoveGenerator.generateCaptures(board, currentPlayer, enPassantSquare(), moves);
 	}
 
 	public ChessPiece performChessMove(ChessPosition originPosition, ChessPosition targetPosition) {
@@ -73,144 +298,209 @@ public class ChessMatch {
 		Position target = targetPosition.toPosition();
 		validateOriginPosition(origin);
 		validateTargetPosition(origin, target);
-		Piece capturedPiece = makeMove(origin, target);
 
-		if (testCheck(currentPlayer)) {
-			undoMove(origin, target, capturedPiece);
-			throw new ChessException("You can't put yourself in check!");
-		}
+		int move = validationMoves.find(Bitboards.square(origin), Bitboards.square(target));
+		playMove(move);
 
-		ChessPiece movedPiece = (ChessPiece) board.piece(target);
+		return (ChessPiece) capturedHistory[ply - 1];
+	}
+
+	private void playMove(int move) {
+		makeMove(move);
 
 		// #especial move promotion
-		promoted = null;
-		if (movedPiece instanceof Pawn) {
-			if ((movedPiece.getColor() == Color.WHITE && targetPosition.getRow() == 0)
-					|| (movedPiece.getColor() == Color.BLACK && targetPosition.getRow() == 7)) {
-				promoted = movedPiece;
-				promoted = replacePromotedPiece("Q");
-			}
-		}
+		promoted = Move.isPromotion(move) ? (ChessPiece) board.piece(Move.to(move)) : null;
 
-		check = testCheck(opponent(currentPlayer)) ? true : false;
+		generateLegalMoves(legalMoves);
+		checkMate = legalMoves.isEmpty() && check;
+		stalemate = legalMoves.isEmpty() && !check;
+	}
 
-		if (testCheckMate(opponent(currentPlayer))) {
-			checkMate = true;
-		} else {
-			this.nextTurn();
+	// applies a move from generateLegalMoves and passes the turn, without validating it
+	public void makeMove(int move) {
+		if (ply == moveHistory.length) {
+			growHistory();
 		}
+		if (keyCount == keyHistory.length) {
+			keyHistory = Arrays.copyOf(keyHistory, keyCount * 2);
+		}
+		keyHistory[keyCount++] = positionKey();
+
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int flags = Move.flags(move);
+		// read while the board still shows whether the old en passant capture was possible
+		long oldEnPassantKey = enPassantKey();
+		ChessPiece p = (ChessPiece) board.removePiece(from);
+		Piece captured;
 
 		// #especial move en passant
-		if (movedPiece instanceof Pawn
-				&& (target.getRow() == origin.getRow() + 2 || target.getRow() == origin.getRow() - 2)) {
-			enPassantVulnerable = movedPiece;
+		if (flags == Move.EN_PASSANT) {
+			captured = board.removePiece(to + (p.getColor() == Color.WHITE ? 8 : -8));
 		} else {
-			enPassantVulnerable = null;
+			captured = board.removePiece(to);
 		}
 
-		return (ChessPiece) capturedPiece;
-	}
+		if (captured != null) {
+			capturedPieces.add(captured);
+		}
+
+		moveHistory[ply] = move;
+		capturedHistory[ply] = captured;
+		enPassantHistory[ply] = enPassantVulnerable;
+		promotedPawnHistory[ply] = null;
+		checkHistory[ply] = check;
+		castlingHistory[ply] = castlingRights;
+		halfmoveHistory[ply] = halfmoveClock;
+		stateKeyHistory[ply] = stateKey;
+		ply++;
 
-	private Piece makeMove(Position originPosition, Position targetPosition) {
-		ChessPiece p = (ChessPiece) board.removePiece(originPosition);
-		Piece captured = board.removePiece(targetPosition);
 		p.increaseMoveCount();
-		board.placePiece(p, targetPosition);
+		halfmoveClock = captured != null || p.getType() == PieceType.PAWN ? 0 : halfmoveClock + 1;
 
-		if (captured != null) {
-			piecesOnTheBoard.remove(captured);
-			capturedPieces.add(captured);
+		// #especial move promotion
+		if (Move.isPromotion(move)) {
+			ChessPiece newPiece = newPiece(Move.promotionType(move), p.getColor());
+			promotedPawnHistory[ply - 1] = p;
+			board.placePiece(newPiece, to);
+		} else {
+			board.placePiece(p, to);
 		}
 
 		// #especial move castling king side rook
-		if (p instanceof King && targetPosition.getColumn() == originPosition.getColumn() + 2) {
-			Position originR = new Position(originPosition.getRow(), originPosition.getColumn() + 3);
-			Position targetR = new Position(originPosition.getRow(), originPosition.getColumn() + 1);
-
-			ChessPiece rook = (ChessPiece) board.removePiece(originR);
-			board.placePiece(rook, targetR);
+		if (flags == Move.KING_CASTLE) {
+			ChessPiece rook = (ChessPiece) board.removePiece(from + 3);
+			board.placePiece(rook, from + 1);
+			rook.increaseMoveCount();
+		}
 
+		// #especial move castling queen side rook
+		if (flags == Move.QUEEN_CASTLE) {
+			ChessPiece rook = (ChessPiece) board.removePiece(from - 4);
+			board.placePiece(rook, from - 1);
 			rook.increaseMoveCount();
 		}
 
+		int rights = castlingRights & Castling.mask(from) & Castling.mask(to);
+		stateKey ^= oldEnPassantKey ^ Zobrist.castling(castlingRights) ^ Zobrist.castling(rights);
+		castlingRights = rights;
+
+		enPassantVulnerable = flags == Move.DOUBLE_PAWN_PUSH ? p : null;
+
+		nextTurn();
+		stateKey ^= Zobrist.side() ^ enPassantKey();
+		check = testCheck(currentPlayer);
+	}
+
+	// takes back the last makeMove
+	public void undoMove() {
+		ply--;
+		keyCount--;
+		int move = moveHistory[ply];
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int flags = Move.flags(move);
+
+		previousTurn();
+
+		// #especial move castling king side rook
+		if (flags == Move.KING_CASTLE) {
+			ChessPiece rook = (ChessPiece) board.removePiece(from + 1);
+			board.placePiece(rook, from + 3);
+			rook.decreaseMoveCount();
+		}
+
 		// #especial move castling queen side rook
-		if (p instanceof King && targetPosition.getColumn() == originPosition.getColumn() - 2) {
-			Position originR = new Position(originPosition.getRow(), originPosition.getColumn() - 4);
-			Position targetR = new Position(originPosition.getRow(), originPosition.getColumn() - 1);
+		if (flags == Move.QUEEN_CASTLE) {
+			ChessPiece rook = (ChessPiece) board.removePiece(from - 1);
+			board.placePiece(rook, from - 4);
+			rook.decreaseMoveCount();
+		}
 
-			ChessPiece rook = (ChessPiece) board.removePiece(originR);
-			board.placePiece(rook, targetR);
+		ChessPiece p = (ChessPiece) board.removePiece(to);
 
-			rook.increaseMoveCount();
+		// #especial move promotion
+		if (promotedPawnHistory[ply] != null) {
+			p = promotedPawnHistory[ply];
 		}
 
-		// #especial move en passant
-		if (p instanceof Pawn) {
-			if (targetPosition.getColumn() != originPosition.getColumn() && captured == null) {
-				Position pawnPosition;
-				if (p.getColor() == Color.WHITE) {
-					pawnPosition = new Position(targetPosition.getRow() + 1, targetPosition.getColumn());
-				} else {
-					pawnPosition = new Position(targetPosition.getRow() - 1, targetPosition.getColumn());
-				}
+		p.decreaseMoveCount();
+		board.placePiece(p, from);
 
-				captured = board.removePiece(pawnPosition);
-				capturedPieces.add(captured);
-				piecesOnTheBoard.remove(captured);
+		Piece captured = capturedHistory[ply];
+		if (captured != null) {
+			// #especial move en passant
+			if (flags == Move.EN_PASSANT) {
+				board.placePiece(captured, to + (p.getColor() == Color.WHITE ? 8 : -8));
+			} else {
+				board.placePiece(captured, to);
 			}
+			capturedPieces.remove(capturedPieces.size() - 1);
 		}
 
-		return captured;
+		enPassantVulnerable = enPassantHistory[ply];
+		check = checkHistory[ply];
+		castlingRights = castlingHistory[ply];
+		halfmoveClock = halfmoveHistory[ply];
+		stateKey = stateKeyHistory[ply];
+		capturedHistory[ply] = null;
+		enPassantHistory[ply] = null;
+		promotedPawnHistory[ply] = null;
 	}
 
-	private void undoMove(Position origin, Position target, Piece capturedPiece) {
-		ChessPiece p = (ChessPiece) board.removePiece(target);
-		p.decreaseMoveCount();
-		board.placePiece(p, origin);
+	private void growHistory() {
+		int size = moveHistory.length * 2;
+		moveHistory = Arrays.copyOf(moveHistory, size);
+		capturedHistory = Arrays.copyOf(capturedHistory, size);
+		enPassantHistory = Arrays.copyOf(enPassantHistory, size);
+		promotedPawnHistory = Arrays.copyOf(promotedPawnHistory, size);
+		checkHistory = Arrays.copyOf(checkHistory, size);
+		castlingHistory = Arrays.copyOf(castlingHistory, size);
+		halfmoveHistory = Arrays.copyOf(halfmoveHistory, size);
+		stateKeyHistory = Arrays.copyOf(stateKeyHistory, size);
+	}
+
+	// counts the leaf nodes of the legal move tree, depth in plies
+	public long perft(int depth) {
+		if (depth == 0) return 1;
 
-		if (capturedPiece != null) {
-			board.placePiece(capturedPiece, target);
-			capturedPieces.remove(capturedPiece);
-			piecesOnTheBoard.add(capturedPiece);
+		MoveList[] lists = new MoveList[depth];
+		for (int i = 0; i < depth; i++) {
+			lists[i] = new MoveList();
 		}
 
-		// #especial move castling king side rook
-		if (p instanceof King && target.getColumn() == origin.getColumn() + 2) {
-			Position originR = new Position(origin.getRow(), origin.getColumn() + 3);
-			Position targetR = new Position(origin.getRow(), origin.getColumn() + 1);
+		return perft(depth, lists);
+	}
 
-			ChessPiece rook = (ChessPiece) board.removePiece(targetR);
-			board.placePiece(rook, originR);
+	private long perft(int depth, MoveList[] lists) {
+		MoveList moves = lists[depth - 1];
+		generateLegalMoves(moves);
 
-			rook.decreaseMoveCount();
+		if (depth == 1) return moves.size();
+
+		long nodes = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			makeMove(moves.get(i));
+			nodes += perft(depth - 1, lists);
+			undoMove();
 		}
 
-		// #especial move castling queen side rook
-		if (p instanceof King && target.getColumn() == origin.getColumn() - 2) {
-			Position originR = new Position(origin.getRow(), origin.getColumn() - 4);
-			Position targetR = new Position(origin.getRow(), origin.getColumn() - 1);
+		return nodes;
+	}
 
-			ChessPiece rook = (ChessPiece) board.removePiece(targetR);
-			board.placePiece(rook, originR);
+	// perft split by root move, keyed by the move in coordinate notation
+	public Map<String, Long> divide(int depth) {
+		Map<String, Long> result = new LinkedHashMap<String, Long>();
+		MoveList moves = new MoveList();
+		generateLegalMoves(moves);
 
-			rook.decreaseMoveCount();
+		for (int i = 0; i < moves.size(); i++) {
+			makeMove(moves.get(i));
+			result.put(Move.toString(moves.get(i)), depth > 1 ? perft(depth - 1) : 1L);
+			undoMove();
 		}
 
-		// #especial move en passant
-		if (p instanceof Pawn) {
-			if (target.getColumn() != origin.getColumn() && capturedPiece == enPassantVulnerable) {
-				ChessPiece pawn = (ChessPiece) board.removePiece(target);
-				Position pawnPosition;
-
-				if (p.getColor() == Color.WHITE) {
-					pawnPosition = new Position(3, target.getColumn());
-				} else {
-					pawnPosition = new Position(4, target.getColumn());
-				}
-
-				board.placePiece(pawn, pawnPosition);
-			}
-		}
+		return result;
 	}
 
 	public ChessPiece replacePromotedPiece(String type) {
@@ -221,113 +511,127 @@ public class ChessMatch {
 			return promoted;
 		}
 
-		Position pos = promoted.getChessPosition().toPosition();
-		Piece p = board.removePiece(pos);
-		piecesOnTheBoard.remove(p);
-		ChessPiece newPiece = this.newPiece(type, promoted.getColor());
-		board.placePiece(newPiece, pos);
-		piecesOnTheBoard.add(newPiece);
-		
-		return newPiece;
+		int move = moveHistory[ply - 1];
+		int flags = (Move.flags(move) & Move.CAPTURE) | promotionFlag(type);
+
+		undoMove();
+		playMove(Move.of(Move.from(move), Move.to(move), flags));
 
+		return promoted;
 	}
 
-	private ChessPiece newPiece(String type, Color color) {
-		if (type.equals("B")) return new Bishop(board, color);
-		if (type.equals("N")) return new Knight(board, color);
-		if (type.equals("Q")) return new Queen(board, color);
+	private int promotionFlag(String type) {
+		if (type.equals("B")) return Move.BISHOP_PROMOTION;
+		if (type.equals("N")) return Move.KNIGHT_PROMOTION;
+		if (type.equals("Q")) return Move.QUEEN_PROMOTION;
 
-		return new Rook(board, color);
+		return Move.ROOK_PROMOTION;
 	}
 
-	private Color opponent(Color color) {
-		return color == Color.WHITE ? Color.BLACK : Color.WHITE;
+	private void releasePiece(ChessPiece p) {
+		int index = p.getColor().ordinal() * 6 + p.getType().ordinal();
+
+		if (spareCounts[index] < sparePieces[index].length) {
+			sparePieces[index][spareCounts[index]++] = p;
+		}
 	}
 
-	private ChessPiece king(Color color) {
-		List<Piece> list = piecesOnTheBoard.stream().filter(x -> ((ChessPiece) x).getColor() == color)
-				.collect(Collectors.toList());
+	// a piece released by clearPosition when there is one, so bulk loading into the same match doesn't allocate
+	private ChessPiece reusePiece(PieceType type, Color color) {
+		int index = color.ordinal() * 6 + type.ordinal();
 
-		for (Piece p : list) {
-			if (p instanceof King)
-				return (ChessPiece) p;
+		if (spareCounts == null || spareCounts[index] == 0) {
+			return newPiece(type, color);
 		}
 
-		throw new IllegalStateException("There's no " + color + " King on the board");
+		ChessPiece p = sparePieces[index][--spareCounts[index]];
+		p.moveCount = 0;
+		return p;
 	}
 
-	private boolean testCheck(Color color) {
-		Position kingPos = king(color).getChessPosition().toPosition();
-		List<Piece> opponentPieces = piecesOnTheBoard.stream()
-				.filter(x -> ((ChessPiece) x).getColor() == opponent(color)).collect(Collectors.toList());
+	private ChessPiece newPiece(PieceType type, Color color) {
+		if (type == PieceType.BISHOP) return new Bishop(board, color);
+		if (type == PieceType.KNIGHT) return new Knight(board, color);
+		if (type == PieceType.QUEEN) return new Queen(board, color);
+		if (type == PieceType.PAWN) return new Pawn(board, color, this);
+		if (type == PieceType.KING) return new King(board, color, this);
 
-		for (Piece oppnent : opponentPieces) {
-			boolean[][] mat = oppnent.possibleMoves();
+		return new Rook(board, color);
+	}
 
-			if (mat[kingPos.getRow()][kingPos.getColumn()]) {
-				return true;
-			}
+	private Color opponent(Color color) {
+		return color == Color.WHITE ? Color.BLACK : Color.WHITE;
+	}
+
+	private int kingSquare(Color color) {
+		int square = board.kingSquare(color);
+
+		if (square < 0) {
+			throw new IllegalStateException("There's no " + color + " King on the board");
 		}
 
-		return false;
+		return square;
 	}
 
-	private boolean testCheckMate(Color color) {
-		if (!testCheck(color))
-			return false;
+	private boolean testCheck(Color color) {
+		return board.isSquareAttacked(kingSquare(color), opponent(color));
+	}
 
-		List<Piece> list = piecesOnTheBoard.stream().filter(x -> ((ChessPiece) x).getColor() == color)
-				.collect(Collectors.toList());
+	private int enPassantSquare() {
+		if (enPassantVulnerable == null) return -1;
 
-		for (Piece p : list) {
-			boolean[][] mat = p.possibleMoves();
+		// the square the vulnerable pawn skipped over
+		return enPassantVulnerable.getSquare() + (currentPlayer == Color.WHITE ? -8 : 8);
+	}
 
-			for (int i = 0; i < board.getRows(); i++) {
-				for (int j = 0; j < board.getColumns(); j++) {
-					if (mat[i][j]) {
-						Position origin = ((ChessPiece) p).getChessPosition().toPosition();
-						Position target = new Position(i, j);
+	// only hashed when a pawn can actually take en passant, so otherwise equal positions share a key
+	private long enPassantKey() {
+		if (enPassantVulnerable == null) return 0;
 
-						Piece captured = makeMove(origin, target);
+		int square = enPassantSquare();
+		if ((Attacks.pawn(opponent(currentPlayer), square) & board.bitboard(currentPlayer, PieceType.PAWN)) == 0) {
+			return 0;
+		}
 
-						if (!testCheck(color)) {
-							undoMove(origin, target, captured);
-							return false;
-						} else {
-							undoMove(origin, target, captured);
-						}
+		return Zobrist.enPassant(Bitboards.column(square));
+	}
 
-					}
-				}
-			}
-		}
+	private long computeStateKey() {
+		long key = Zobrist.castling(castlingRights) ^ enPassantKey();
 
-		return true;
+		return currentPlayer == Color.BLACK ? key ^ Zobrist.side() : key;
 	}
 
 	private void validateOriginPosition(Position pos) {
-		ChessPiece p = (ChessPiece) board.piece(pos);
+		if (!board.thereIsAPiece(pos)) {
+			throw new ChessException("There's no piece on origin position");
+		}
 
+		ChessPiece p = (ChessPiece) board.piece(pos);
 		if (p.getColor() != this.currentPlayer) {
 			throw new ChessException("The chosen piece is not yours");
 		}
-		if (!board.thereIsAPiece(pos)) {
-			throw new ChessException("There's no piece on origin position");
-		}
 
-		if (!board.piece(pos).isThereAnyPossibleMove()) {
+		generateLegalMoves(validationMoves);
+		if (validationMoves.targets(Bitboards.square(pos)) == 0) {
 			throw new ChessException("There's no possible moves for this piece");
 		}
 	}
 
 	private void validateTargetPosition(Position originPosition, Position targetPosition) {
-		if (!board.piece(originPosition).possibleMove(targetPosition))
+		int origin = Bitboards.square(originPosition);
+		int target = Bitboards.square(targetPosition);
+
+		if (validationMoves.find(origin, target) == Move.NONE) {
+			if (board.piece(originPosition).possibleMove(targetPosition)) {
+				throw new ChessException("You can't put yourself in check!");
+			}
 			throw new ChessException("The chosen piece can't move to the target position");
+		}
 	}
 
 	private void placeNewPiece(char column, int row, ChessPiece piece) {
 		board.placePiece(piece, new ChessPosition(column, row).toPosition());
-		piecesOnTheBoard.add(piece);
 	}
 
 	private void initialSetup() {
@@ -366,11 +670,260 @@ public class ChessMatch {
 		placeNewPiece('h', 7, new Pawn(board, Color.BLACK, this));
 	}
 
+	private void loadFen(String fen) {
+		int length = fen.length();
+		int i = skipSpaces(fen, 0);
+		int row = 0;
+		int column = 0;
+
+		for (; i < length && fen.charAt(i) != ' '; i++) {
+			char c = fen.charAt(i);
+			if (c == '/') {
+				row++;
+				column = 0;
+			} else if (c >= '1' && c <= '8') {
+				column += c - '0';
+			} else {
+				if (row > 7 || column > 7) {
+					throw new ChessException("Invalid FEN: " + fen);
+				}
+				board.placePiece(fenPiece(c, row), Bitboards.square(row, column));
+				column++;
+			}
+		}
+
+		if (Long.bitCount(board.bitboard(Color.WHITE, PieceType.KING)) != 1
+				|| Long.bitCount(board.bitboard(Color.BLACK, PieceType.KING)) != 1) {
+			throw new ChessException("Invalid FEN, each side needs exactly one king: " + fen);
+		}
+		if ((board.bitboard(PieceType.PAWN) & (Bitboards.RANK_8 | Bitboards.RANK_1)) != 0) {
+			throw new ChessException("Invalid FEN, pawns can't stand on the first or last rank: " + fen);
+		}
+
+		i = skipSpaces(fen, i);
+		if (i >= length) {
+			throw new ChessException("Invalid FEN: " + fen);
+		}
+		currentPlayer = fen.charAt(i) == 'b' ? Color.BLACK : Color.WHITE;
+		Color waiting = currentPlayer == Color.WHITE ? Color.BLACK : Color.WHITE;
+		if (board.isSquareAttacked(board.kingSquare(waiting), currentPlayer)) {
+			throw new ChessException("Invalid FEN, the side not to move is in check: " + fen);
+		}
+
+		int castling = 0;
+		for (i = skipSpaces(fen, i + 1); i < length && fen.charAt(i) != ' '; i++) {
+			castling |= fenCastlingRight(fen.charAt(i));
+		}
+		castlingRights = fenCastlingRights(castling);
+		markMovedPieces();
+
+		// #especial move en passant, the vulnerable pawn stands just past the target square, which it crossed
+		// from its starting square on the double push
+		i = skipSpaces(fen, i);
+		if (i + 1 < length && fen.charAt(i) != '-') {
+			char file = fen.charAt(i);
+			char rank = fen.charAt(i + 1);
+			int forward = currentPlayer == Color.WHITE ? 8 : -8;
+			if (file < 'a' || file > 'h' || rank != (currentPlayer == Color.WHITE ? '6' : '3')) {
+				throw new ChessException("Invalid FEN en passant square: " + fen);
+			}
+
+			int target = Bitboards.square('8' - rank, file - 'a');
+			ChessPiece p = (ChessPiece) board.piece(target + forward);
+			if (!(p instanceof Pawn) || p.getColor() == currentPlayer || board.piece(target) != null
+					|| board.piece(target - forward) != null) {
+				throw new ChessException("Invalid FEN, no pawn can have just passed the en passant square: " + fen);
+			}
+			enPassantVulnerable = p;
+		}
+		while (i < length && fen.charAt(i) != ' ') i++;
+
+		i = skipSpaces(fen, i);
+		halfmoveClock = i < length ? fenNumber(fen, i) : 0;
+		while (i < length && fen.charAt(i) != ' ') i++;
+
+		i = skipSpaces(fen, i);
+		int fullMoves = i < length ? fenNumber(fen, i) : 1;
+		turn = 2 * (Math.max(fullMoves, 1) - 1) + (currentPlayer == Color.WHITE ? 1 : 2);
+		check = testCheck(currentPlayer);
+		stateKey = computeStateKey();
+	}
+
+	private static int skipSpaces(String fen, int i) {
+		while (i < fen.length() && fen.charAt(i) == ' ') i++;
+
+		return i;
+	}
+
+	private static int fenNumber(String fen, int i) {
+		int value = 0;
+
+		for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+			char c = fen.charAt(i);
+			if (c < '0' || c > '9') {
+				throw new ChessException("Invalid FEN number: " + fen);
+			}
+			value = value * 10 + (c - '0');
+		}
+
+		return value;
+	}
+
+	private static int fenCastlingRight(char c) {
+		switch (c) {
+		case 'K':
+			return Castling.WHITE_KING_SIDE;
+		case 'Q':
+			return Castling.WHITE_QUEEN_SIDE;
+		case 'k':
+			return Castling.BLACK_KING_SIDE;
+		case 'q':
+			return Castling.BLACK_QUEEN_SIDE;
+		default:
+			return 0;
+		}
+	}
+
+	// rights the placement can't back up (king or rook off its square) are dropped
+	private int fenCastlingRights(int castling) {
+		int rights = 0;
+
+		for (Color color : COLORS) {
+			int homeRow = color == Color.WHITE ? 7 : 0;
+			if (board.kingSquare(color) != Bitboards.square(homeRow, 4)) continue;
+
+			if ((castling & Castling.kingSide(color)) != 0 && isRook(Bitboards.square(homeRow, 7), color)) {
+				rights |= Castling.kingSide(color);
+			}
+			if ((castling & Castling.queenSide(color)) != 0 && isRook(Bitboards.square(homeRow, 0), color)) {
+				rights |= Castling.queenSide(color);
+			}
+		}
+
+		return rights;
+	}
+
+	// the legacy piece rules read castling from move counts, so kings and rooks without rights count as moved
+	private void markMovedPieces() {
+		for (Color color : COLORS) {
+			int homeRow = color == Color.WHITE ? 7 : 0;
+			ChessPiece king = (ChessPiece) board.piece(board.kingSquare(color));
+			if ((castlingRights & (Castling.kingSide(color) | Castling.queenSide(color))) == 0) {
+				king.increaseMoveCount();
+			}
+
+			long rooks = board.bitboard(color, PieceType.ROOK);
+			while (rooks != 0) {
+				int square = Long.numberOfTrailingZeros(rooks);
+				boolean kingSide = square == Bitboards.square(homeRow, 7) && (castlingRights & Castling.kingSide(color)) != 0;
+				boolean queenSide = square == Bitboards.square(homeRow, 0) && (castlingRights & Castling.queenSide(color)) != 0;
+				if (!kingSide && !queenSide) {
+					((ChessPiece) board.piece(square)).increaseMoveCount();
+				}
+				rooks &= rooks - 1;
+			}
+		}
+	}
+
+	private boolean isRook(int square, Color color) {
+		ChessPiece p = (ChessPiece) board.piece(square);
+
+		return p instanceof Rook && p.getColor() == color;
+	}
+
+	// pawns off their start rank count as moved, so they don't get a double push
+	private ChessPiece fenPiece(char c, int row) {
+		Color color = c >= 'A' && c <= 'Z' ? Color.WHITE : Color.BLACK;
+		PieceType type = fenType(color == Color.WHITE ? c : (char) (c - 'a' + 'A'));
+		if (type == null) {
+			throw new ChessException("Invalid FEN piece: " + c);
+		}
+
+		ChessPiece piece = reusePiece(type, color);
+
+		if (type == PieceType.PAWN && row != (color == Color.WHITE ? 6 : 1)) {
+			piece.increaseMoveCount();
+		}
+
+		return piece;
+	}
+
+	private static PieceType fenType(char c) {
+		switch (c) {
+		case 'P':
+			return PieceType.PAWN;
+		case 'N':
+			return PieceType.KNIGHT;
+		case 'B':
+			return PieceType.BISHOP;
+		case 'R':
+			return PieceType.ROOK;
+		case 'Q':
+			return PieceType.QUEEN;
+		case 'K':
+			return PieceType.KING;
+		default:
+			return null;
+		}
+	}
+
+	public String toFen() {
+		StringBuilder sb = new StringBuilder(90);
+
+		for (int row = 0; row < 8; row++) {
+			int empty = 0;
+			for (int column = 0; column < 8; column++) {
+				ChessPiece p = (ChessPiece) board.piece(Bitboards.square(row, column));
+				if (p == null) {
+					empty++;
+					continue;
+				}
+				if (empty > 0) {
+					sb.append((char) ('0' + empty));
+					empty = 0;
+				}
+				char c = FEN_PIECES.charAt(p.getType().ordinal());
+				sb.append(p.getColor() == Color.WHITE ? c : Character.toLowerCase(c));
+			}
+			if (empty > 0) sb.append((char) ('0' + empty));
+			if (row < 7) sb.append('/');
+		}
+
+		sb.append(currentPlayer == Color.WHITE ? " w " : " b ");
+
+		if (castlingRights == 0) sb.append('-');
+		if ((castlingRights & Castling.WHITE_KING_SIDE) != 0) sb.append('K');
+		if ((castlingRights & Castling.WHITE_QUEEN_SIDE) != 0) sb.append('Q');
+		if ((castlingRights & Castling.BLACK_KING_SIDE) != 0) sb.append('k');
+		if ((castlingRights & Castling.BLACK_QUEEN_SIDE) != 0) sb.append('q');
+
+		int target = enPassantSquare();
+		if (target < 0) {
+			sb.append(" -");
+		} else {
+			sb.append(' ').append((char) ('a' + Bitboards.column(target))).append((char) ('8' - Bitboards.row(target)));
+		}
+
+		return sb.append(' ').append(halfmoveClock).append(' ').append(getFullmoveNumber()).toString();
+	}
+
+	// bulk loading: puts this match on the FEN position, reusing it and its piece objects instead of building a
+	// new match, so pieces taken from it earlier must not be kept
+	public void setFen(String fen) {
+		clearPosition();
+		loadFen(fen);
+	}
+
 	private void nextTurn() {
 		this.turn++;
 		this.currentPlayer = this.currentPlayer == Color.WHITE ? Color.BLACK : Color.WHITE;
 	}
 
+	private void previousTurn() {
+		this.turn--;
+		this.currentPlayer = this.currentPlayer == Color.WHITE ? Color.BLACK : Color.WHITE;
+	}
+
 	public ChessPiece getEnPassantVulnerable() {
 		return enPassantVulnerable;
 	}
@@ -16,6 +16,20 @@ public abstract class ChessPiece extends Piece{
 	public Color getColor() {
 		return color;
 	}
+
+	public abstract PieceType getType();
+
+	// fills the list with this piece's pseudo-legal moves, without allocating
+	public abstract void generateMoves(MoveList moves);
+
+	// compatibility view of generateMoves, kept for the UI highlighting
+	@Override
+	public boolean[][] possibleMoves() {
+		MoveList moves = new MoveList();
+		generateMoves(moves);
+
+		return Bitboards.toMatrix(moves.targets(getSquare()));
+	}
 	
 	public void increaseMoveCount() {
 		moveCount++;
@@ -32,7 +46,19 @@ public abstract class ChessPiece extends Piece{
 	public ChessPosition getChessPosition() {
 		return ChessPosition.fromPosition(position);
 	}
+
+	protected ChessBoard getChessBoard() {
+		return (ChessBoard) getBoard();
+	}
+
+	protected int getSquare() {
+		return Bitboards.square(position);
+	}
 	
+	protected void addMoves(MoveList moves, int from, long targets) {
+		moves.addMoves(from, targets, getChessBoard().occupancy(color == Color.WHITE ? Color.BLACK : Color.WHITE));
+	}
+
 	protected boolean isThereOpponentPiece(Position pos) {
 		ChessPiece p = (ChessPiece) getBoard().piece(pos);
 		
@@ -0,0 +1,78 @@
+package chess;
+
+public final class Move {
+	// 16-bit encoding: bits 0-5 origin square, bits 6-11 target square, bits 12-15 flags
+	public static final int NONE = 0;
+
+	public static final int QUIET = 0;
+	public static final int DOUBLE_PAWN_PUSH = 1;
+	public static final int KING_CASTLE = 2;
+	public static final int QUEEN_CASTLE = 3;
+	public static final int CAPTURE = 4;
+	public static final int EN_PASSANT = 5;
+	// promotion flags carry the piece in their two low bits (knight, bishop, rook, queen) and may be or'ed with CAPTURE
+	public static final int PROMOTION = 8;
+	public static final int KNIGHT_PROMOTION = 8;
+	public static final int BISHOP_PROMOTION = 9;
+	public static final int ROOK_PROMOTION = 10;
+	public static final int QUEEN_PROMOTION = 11;
+
+	private Move() {
+	}
+
+	public static int of(int from, int to, int flags) {
+		return from | (to << 6) | (flags << 12);
+	}
+
+	public static int from(int move) {
+		return move & 0x3F;
+	}
+
+	public static int to(int move) {
+		return (move >>> 6) & 0x3F;
+	}
+
+	public static int flags(int move) {
+		return (move >>> 12) & 0xF;
+	}
+
+	public static boolean isCapture(int move) {
+		return (move & (CAPTURE << 12)) != 0;
+	}
+
+	public static boolean isPromotion(int move) {
+		return (move & (PROMOTION << 12)) != 0;
+	}
+
+	public static boolean isCastling(int move) {
+		int flags = flags(move);
+		return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+	}
+
+	public static PieceType promotionType(int move) {
+		switch ((move >>> 12) & 3) {
+		case 0:
+			return PieceType.KNIGHT;
+		case 1:
+			return PieceType.BISHOP;
+		case 2:
+			return PieceType.ROOK;
+		default:
+			return PieceType.QUEEN;
+		}
+	}
+
+	public static String toString(int move) {
+		String s = squareName(from(move)) + squareName(to(move));
+
+		if (isPromotion(move)) {
+			s += "nbrq".charAt((move >>> 12) & 3);
+		}
+
+		return s;
+	}
+
+	private static String squareName(int square) {
+		return "" + (char) ('a' + Bitboards.column(square)) + (8 - Bitboards.row(square));
+	}
+}
@@ -0,0 +1,171 @@
+package chess;
+
+public final class MoveGenerator {
+
+	private MoveGenerator() {
+	}
+
+	// fills the list with the legal moves of the side, epSquare being the en passant target square or -1
+	public static void generate(ChessBoard board, Color side, int castling, int epSquare, MoveList moves) {
+		generate(board, side, castling, epSquare, false, moves);
+	}
+
+	// only the legal captures and promotions, for the quiescence search
+	public static void generateCaptures(ChessBoard board, Color side, int epSquare, MoveList moves) {
+		generate(board, side, 0, epSquare, true, moves);
+	}
+
+	private static void generate(ChessBoard board, Color side, int castling, int epSquare, boolean capturesOnly,
+			MoveList moves) {
+		Color them = side == Color.WHITE ? Color.BLACK : Color.WHITE;
+		long own = board.occupancy(side);
+		long enemies = board.occupancy(them);
+		long occupied = own | enemies;
+		int king = board.kingSquare(side);
+
+		long checkers = board.attackersTo(king, occupied) & enemies;
+
+		// king moves, tested with the king lifted so it can't hide behind itself on a slider's ray
+		long kingTargets = Attacks.king(king) & (capturesOnly ? enemies : ~own);
+		long withoutKing = occupied ^ (1L << king);
+		while (kingTargets != 0) {
+			int to = Long.numberOfTrailingZeros(kingTargets);
+			if ((board.attackersTo(to, withoutKing) & enemies) == 0) {
+				moves.add(Move.of(king, to, (enemies & (1L << to)) != 0 ? Move.CAPTURE : Move.QUIET));
+			}
+			kingTargets &= kingTargets - 1;
+		}
+
+		if (Long.bitCount(checkers) > 1) {
+			return;
+		}
+
+		// with a single checker every other move has to capture it or block its ray
+		long checkMask = -1L;
+		if (checkers != 0) {
+			int checker = Long.numberOfTrailingZeros(checkers);
+			checkMask = checkers | Attacks.between(king, checker);
+		}
+
+		long pinned = pinnedPieces(board, side, king, own, occupied);
+		long targetMask = (capturesOnly ? enemies : ~own) & checkMask;
+
+		generatePawnMoves(board, side, king, epSquare, enemies, occupied, checkMask, pinned, capturesOnly, moves);
+
+		long knights = board.bitboard(side, PieceType.KNIGHT) & ~pinned;
+		while (knights != 0) {
+			int from = Long.numberOfTrailingZeros(knights);
+			moves.addMoves(from, Attacks.knight(from) & targetMask, enemies);
+			knights &= knights - 1;
+		}
+
+		long queens = board.bitboard(side, PieceType.QUEEN);
+		long bishops = board.bitboard(side, PieceType.BISHOP) | queens;
+		while (bishops != 0) {
+			int from = Long.numberOfTrailingZeros(bishops);
+			long targets = Attacks.bishop(from, occupied) & targetMask;
+			if ((pinned & (1L << from)) != 0) {
+				targets &= Attacks.line(king, from);
+			}
+			moves.addMoves(from, targets, enemies);
+			bishops &= bishops - 1;
+		}
+
+		long rooks = board.bitboard(side, PieceType.ROOK) | queens;
+		while (rooks != 0) {
+			int from = Long.numberOfTrailingZeros(rooks);
+			long targets = Attacks.rook(from, occupied) & targetMask;
+			if ((pinned & (1L << from)) != 0) {
+				targets &= Attacks.line(king, from);
+			}
+			moves.addMoves(from, targets, enemies);
+			rooks &= rooks - 1;
+		}
+
+		if (checkers == 0 && !capturesOnly) {
+			generateCastlingMoves(board, side, them, king, castling, occupied, moves);
+		}
+	}
+
+	private static long pinnedPieces(ChessBoard board, Color side, int king, long own, long occupied) {
+		Color them = side == Color.WHITE ? Color.BLACK : Color.WHITE;
+		long queens = board.bitboard(them, PieceType.QUEEN);
+		long snipers = (Attacks.rook(king, 0) & (board.bitboard(them, PieceType.ROOK) | queens))
+				| (Attacks.bishop(king, 0) & (board.bitboard(them, PieceType.BISHOP) | queens));
+		long pinned = 0;
+
+		while (snipers != 0) {
+			int sniper = Long.numberOfTrailingZeros(snipers);
+			long blockers = Attacks.between(king, sniper) & occupied;
+			if (Long.bitCount(blockers) == 1) {
+				pinned |= blockers & own;
+			}
+			snipers &= snipers - 1;
+		}
+
+		return pinned;
+	}
+
+	private static void generatePawnMoves(ChessBoard board, Color side, int king, int epSquare, long enemies,
+			long occupied, long checkMask, long pinned, boolean capturesOnly, MoveList moves) {
+		long pawns = board.bitboard(side, PieceType.PAWN);
+		// white pawns move towards row 0
+		int forward = side == Color.WHITE ? -8 : 8;
+		long startRank = side == Color.WHITE ? Bitboards.RANK_2 : Bitboards.RANK_7;
+		// pushes kept when only captures are wanted, promotions change the material too
+		long pushMask = capturesOnly ? Bitboards.RANK_8 | Bitboards.RANK_1 : -1L;
+
+		while (pawns != 0) {
+			int from = Long.numberOfTrailingZeros(pawns);
+			long pinMask = (pinned & (1L << from)) != 0 ? Attacks.line(king, from) : -1L;
+
+			int one = from + forward;
+			if ((occupied & (1L << one)) == 0) {
+				if ((checkMask & pinMask & pushMask & (1L << one)) != 0) {
+					moves.addPawnMove(from, one, Move.QUIET);
+				}
+
+				int two = one + forward;
+				if (!capturesOnly && (startRank & (1L << from)) != 0 && (occupied & (1L << two)) == 0
+						&& (checkMask & pinMask & (1L << two)) != 0) {
+					moves.add(Move.of(from, two, Move.DOUBLE_PAWN_PUSH));
+				}
+			}
+
+			long captures = Attacks.pawn(side, from) & enemies & checkMask & pinMask;
+			while (captures != 0) {
+				moves.addPawnMove(from, Long.numberOfTrailingZeros(captures), Move.CAPTURE);
+				captures &= captures - 1;
+			}
+
+			// #especial move en passant, checked by lifting both pawns since it can uncover a rank attack
+			if (epSquare >= 0 && (Attacks.pawn(side, from) & (1L << epSquare)) != 0) {
+				int captured = epSquare - forward;
+				long after = (occupied ^ (1L << from) ^ (1L << captured)) | (1L << epSquare);
+				long attackers = board.attackersTo(king, after) & enemies & ~(1L << captured);
+				if (attackers == 0) {
+					moves.add(Move.of(from, epSquare, Move.EN_PASSANT));
+				}
+			}
+
+			pawns &= pawns - 1;
+		}
+	}
+
+	private static void generateCastlingMoves(ChessBoard board, Color side, Color them, int king, int castling,
+			long occupied, MoveList moves) {
+		// #special move castling king side rook
+		if ((castling & Castling.kingSide(side)) != 0
+				&& (occupied & ((1L << (king + 1)) | (1L << (king + 2)))) == 0
+				&& !board.isSquareAttacked(king + 1, them) && !board.isSquareAttacked(king + 2, them)) {
+			moves.add(Move.of(king, king + 2, Move.KING_CASTLE));
+		}
+
+		// #special move castling queen side rook
+		if ((castling & Castling.queenSide(side)) != 0
+				&& (occupied & ((1L << (king - 1)) | (1L << (king - 2)) | (1L << (king - 3)))) == 0
+				&& !board.isSquareAttacked(king - 1, them) && !board.isSquareAttacked(king - 2, them)) {
+			moves.add(Move.of(king, king - 2, Move.QUEEN_CASTLE));
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package chess;
+
+public class MoveList {
+	// enough for any reachable position, legal or pseudo-legal
+	private final int[] moves = new int[256];
+	private int size;
+
+	public void add(int move) {
+		moves[size++] = move;
+	}
+
+	public int get(int index) {
+		return moves[index];
+	}
+
+	public void set(int index, int move) {
+		moves[index] = move;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	// a move to every target, flagged as a capture where an enemy piece stands; shared by the move generator and the
+	// pieces
+	public void addMoves(int from, long targets, long enemies) {
+		while (targets != 0) {
+			int to = Long.numberOfTrailingZeros(targets);
+			add(Move.of(from, to, (enemies & (1L << to)) != 0 ? Move.CAPTURE : Move.QUIET));
+			targets &= targets - 1;
+		}
+	}
+
+	public void addPawnMove(int from, int to, int flags) {
+		int row = Bitboards.row(to);
+
+		// #especial move promotion, queen first so it is the default choice
+		if (row == 0 || row == 7) {
+			add(Move.of(from, to, flags | Move.QUEEN_PROMOTION));
+			add(Move.of(from, to, flags | Move.ROOK_PROMOTION));
+			add(Move.of(from, to, flags | Move.BISHOP_PROMOTION));
+			add(Move.of(from, to, flags | Move.KNIGHT_PROMOTION));
+		} else {
+			add(Move.of(from, to, flags));
+		}
+	}
+
+	public long targets(int from) {
+		long targets = 0;
+
+		for (int i = 0; i < size; i++) {
+			if (Move.from(moves[i]) == from) {
+				targets |= 1L << Move.to(moves[i]);
+			}
+		}
+
+		return targets;
+	}
+
+	public int find(int from, int to) {
+		for (int i = 0; i < size; i++) {
+			if (Move.from(moves[i]) == from && Move.to(moves[i]) == to) {
+				return moves[i];
+			}
+		}
+
+		return Move.NONE;
+	}
+}
@@ -0,0 +1,123 @@
+package chess;
+
+// immutable copy of a match position in flat arrays, a couple of hundred bytes instead of a graph of pieces
+public final class Snapshot {
+	private static final PieceType[] TYPES = PieceType.values();
+	private static final Color[] COLORS = Color.values();
+
+	// 0 for an empty square, otherwise color ordinal * 6 + type ordinal + 1
+	private final byte[] squares;
+	// only whether a piece has moved matters to the rules, so counts are capped at a byte
+	private final byte[] moveCounts;
+	private final byte[] captured;
+	private final int turn;
+	private final int halfmoveClock;
+	private final Color currentPlayer;
+	private final int castlingRights;
+	// square of the pawn that can be taken en passant, or -1
+	private final int enPassantSquare;
+	private final boolean check;
+	private final boolean checkMate;
+	private final boolean stalemate;
+	private final long positionKey;
+	// keys of the earlier positions that can still repeat, oldest first
+	private final long[] keys;
+
+	Snapshot(byte[] squares, byte[] moveCounts, byte[] captured, int turn, int halfmoveClock, Color currentPlayer,
+			int castlingRights, int enPassantSquare, boolean check, boolean checkMate, boolean stalemate, long positionKey,
+			long[] keys) {
+		this.squares = squares;
+		this.moveCounts = moveCounts;
+		this.captured = captured;
+		this.turn = turn;
+		this.halfmoveClock = halfmoveClock;
+		this.currentPlayer = currentPlayer;
+		this.castlingRights = castlingRights;
+		this.enPassantSquare = enPassantSquare;
+		this.check = check;
+		this.checkMate = checkMate;
+		this.stalemate = stalemate;
+		this.positionKey = positionKey;
+		this.keys = keys;
+	}
+
+	static byte code(Color color, PieceType type) {
+		return (byte) (color.ordinal() * 6 + type.ordinal() + 1);
+	}
+
+	static Color color(int code) {
+		return COLORS[(code - 1) / 6];
+	}
+
+	static PieceType type(int code) {
+		return TYPES[(code - 1) % 6];
+	}
+
+	int code(int square) {
+		return squares[square];
+	}
+
+	int moveCount(int square) {
+		return moveCounts[square];
+	}
+
+	int capturedCount() {
+		return captured.length;
+	}
+
+	int capturedCode(int index) {
+		return captured[index];
+	}
+
+	int keyCount() {
+		return keys.length;
+	}
+
+	long key(int index) {
+		return keys[index];
+	}
+
+	int getEnPassantSquare() {
+		return enPassantSquare;
+	}
+
+	public PieceType pieceType(int square) {
+		return squares[square] == 0 ? null : type(squares[square]);
+	}
+
+	public Color pieceColor(int square) {
+		return squares[square] == 0 ? null : color(squares[square]);
+	}
+
+	public int getTurn() {
+		return turn;
+	}
+
+	public int getHalfmoveClock() {
+		return halfmoveClock;
+	}
+
+	public Color getCurrentPlayer() {
+		return currentPlayer;
+	}
+
+	public int getCastlingRights() {
+		return castlingRights;
+	}
+
+	public boolean isCheck() {
+		return check;
+	}
+
+	public boolean isCheckMate() {
+		return checkMate;
+	}
+
+	public boolean isStalemate() {
+		return stalemate;
+	}
+
+	public long positionKey() {
+		return positionKey;
+	}
+}
@@ -0,0 +1,100 @@
+package chess;
+
+// static exchange evaluation: the material a move wins once both sides have taken back on its target square with
+// their least valuable attackers, each free to stop when going on would lose. Works on attacker bitboards only,
+// lifting each capturer from a local occupancy so the sliders behind it join in, and ignores pins
+public final class StaticExchange {
+	private static final PieceType[] TYPES = PieceType.values();
+	// centipawns by PieceType ordinal, the king so high that taking it ends any exchange
+	private static final int[] VALUES = { 100, 320, 330, 500, 900, 20000 };
+	private static final int PAWN = PieceType.PAWN.ordinal();
+	private static final int BISHOP = PieceType.BISHOP.ordinal();
+	private static final int ROOK = PieceType.ROOK.ordinal();
+	private static final int QUEEN = PieceType.QUEEN.ordinal();
+	private static final int KING = PieceType.KING.ordinal();
+
+	private StaticExchange() {
+	}
+
+	// longest exchange followed, one entry per capture; more than enough since a square has at most 16 attackers
+	public static final int MAX_DEPTH = 32;
+
+	// from the point of view of the side making the move, which must be legal on the board
+	public static int see(ChessBoard board, int move) {
+		return see(board, move, new int[MAX_DEPTH]);
+	}
+
+	// gain is scratch space of at least MAX_DEPTH entries owned by the caller, so hot paths don't allocate
+	public static int see(ChessBoard board, int move, int[] gain) {
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int flags = Move.flags(move);
+		if (flags == Move.KING_CASTLE || flags == Move.QUEEN_CASTLE) return 0;
+
+		int mover = board.pieceIndex(from);
+		long occupied = board.occupancy() ^ (1L << from);
+
+		// #especial move en passant
+		if (flags == Move.EN_PASSANT) {
+			gain[0] = VALUES[PAWN];
+			occupied ^= 1L << (to + (mover / 6 == Color.WHITE.ordinal() ? 8 : -8));
+		} else {
+			gain[0] = Move.isCapture(move) ? VALUES[board.pieceIndex(to) % 6] : 0;
+		}
+
+		// the piece left standing on the square, the next one to be taken
+		int onSquare = VALUES[mover % 6];
+
+		// #especial move promotion
+		if (Move.isPromotion(move)) {
+			onSquare = VALUES[Move.promotionType(move).ordinal()];
+			gain[0] += onSquare - VALUES[PAWN];
+		}
+
+		long bishops = board.bitboard(PieceType.BISHOP) | board.bitboard(PieceType.QUEEN);
+		long rooks = board.bitboard(PieceType.ROOK) | board.bitboard(PieceType.QUEEN);
+		long attackers = board.attackersTo(to, occupied) & occupied;
+		Color side = mover / 6 == Color.WHITE.ordinal() ? Color.BLACK : Color.WHITE;
+		int depth = 0;
+
+		while (true) {
+			long ours = attackers & board.occupancy(side);
+			if (ours == 0) break;
+
+			int type = PAWN;
+			long attacker = ours & board.bitboard(side, PieceType.PAWN);
+			while (attacker == 0) {
+				type++;
+				attacker = ours & board.bitboard(side, TYPES[type]);
+			}
+
+			// a king can't take back on a square the other side still attacks
+			if (type == KING && (attackers & ~ours) != 0) break;
+
+			// this side stays behind whether it stops or takes, so going on can't change who wins the exchange
+			if (Math.max(-gain[depth], onSquare - gain[depth]) < 0 || depth == MAX_DEPTH - 1) break;
+			depth++;
+			gain[depth] = onSquare - gain[depth - 1];
+
+			onSquare = VALUES[type];
+			occupied ^= attacker & -attacker;
+
+			// x-rays: the sliders lined up behind the piece that just took
+			if (type == PAWN || type == BISHOP || type == QUEEN) {
+				attackers |= Attacks.bishop(to, occupied) & bishops;
+			}
+			if (type == ROOK || type == QUEEN) {
+				attackers |= Attacks.rook(to, occupied) & rooks;
+			}
+			attackers &= occupied;
+			side = side == Color.WHITE ? Color.BLACK : Color.WHITE;
+		}
+
+		while (depth > 0) {
+			gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+			depth--;
+		}
+
+		return gain[0];
+	}
+}
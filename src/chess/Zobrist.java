@@ -0,0 +1,66 @@
+package chess;
+
+public final class Zobrist {
+	private static final long[] PIECES = new long[12 * 64];
+	// one key per combination of the four Castling bits
+	private static final long[] CASTLING = new long[16];
+	private static final long[] EN_PASSANT = new long[8];
+	private static final long SIDE;
+
+	static {
+		long[] seed = { 0x3243F6A8885A308DL };
+
+		for (int i = 0; i < PIECES.length; i++) {
+			PIECES[i] = nextRandom(seed);
+		}
+
+		long[] rights = new long[4];
+		for (int i = 0; i < rights.length; i++) {
+			rights[i] = nextRandom(seed);
+		}
+		for (int i = 0; i < CASTLING.length; i++) {
+			for (int bit = 0; bit < rights.length; bit++) {
+				if ((i & (1 << bit)) != 0) CASTLING[i] ^= rights[bit];
+			}
+		}
+
+		for (int i = 0; i < EN_PASSANT.length; i++) {
+			EN_PASSANT[i] = nextRandom(seed);
+		}
+
+		SIDE = nextRandom(seed);
+	}
+
+	private Zobrist() {
+	}
+
+	public static long piece(Color color, PieceType type, int square) {
+		return PIECES[(color.ordinal() * 6 + type.ordinal()) * 64 + square];
+	}
+
+	// index is color ordinal * 6 + type ordinal, as in the ChessBoard bitboards
+	static long piece(int index, int square) {
+		return PIECES[index * 64 + square];
+	}
+
+	public static long castling(int rights) {
+		return CASTLING[rights];
+	}
+
+	public static long enPassant(int column) {
+		return EN_PASSANT[column];
+	}
+
+	// xor'ed in when black is to move
+	public static long side() {
+		return SIDE;
+	}
+
+	// splitmix64, fixed seed so keys are stable between runs
+	private static long nextRandom(long[] seed) {
+		long z = (seed[0] += 0x9E3779B97F4A7C15L);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
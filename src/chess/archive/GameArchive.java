@@ -0,0 +1,167 @@
+package chess.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import chess.ChessMatch;
+
+// read-only, memory-mapped game archive:
+// header: magic, version, game count (long), index offset (long)
+// games: flags byte, result byte, ply count (unsigned short), [FEN length short, FEN ascii], 16-bit moves
+// index: one long offset per game, for random access
+public class GameArchive implements Closeable {
+	static final int MAGIC = 0x43484741;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 24;
+	static final int HAS_FEN = 1;
+	static final int MAX_PLIES = 0xFFFF;
+	static final int MAX_FEN_LENGTH = 0xFFFF;
+
+	public static final int RESULT_UNKNOWN = 0;
+	public static final int RESULT_WHITE_WINS = 1;
+	public static final int RESULT_BLACK_WINS = 2;
+	public static final int RESULT_DRAW = 3;
+
+	private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+	private static final String[] RESULTS = { "*", "1-0", "0-1", "1/2-1/2" };
+
+	// a mapping is limited to 2 GB, so large archives are mapped in segments that overlap by more than the
+	// largest game record, and every game is read whole from the segment its offset falls in
+	private static final long SEGMENT_SIZE = 1L << 30;
+	private static final long SEGMENT_OVERLAP = 1L << 18;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer[] segments;
+	private final long games;
+	private final long indexOffset;
+
+	public GameArchive(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+
+			int count = (int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+			segments = new MappedByteBuffer[Math.max(count, 1)];
+			for (int i = 0; i < segments.length; i++) {
+				long start = i * SEGMENT_SIZE;
+				long length = Math.min(SEGMENT_SIZE + SEGMENT_OVERLAP, size - start);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(length, 0));
+			}
+
+			if (size < HEADER_SIZE || segments[0].getInt(0) != MAGIC) {
+				throw new IOException("Not a game archive: " + path);
+			}
+			if (segments[0].getInt(4) != VERSION) {
+				throw new IOException("Unsupported game archive version " + segments[0].getInt(4));
+			}
+
+			games = segments[0].getLong(8);
+			indexOffset = segments[0].getLong(16);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public long size() {
+		return games;
+	}
+
+	public int length(long game) {
+		long offset = offset(game);
+
+		return Short.toUnsignedInt(segment(offset).getShort(local(offset) + 2));
+	}
+
+	public String result(long game) {
+		long offset = offset(game);
+
+		return RESULTS[segment(offset).get(local(offset) + 1) & 3];
+	}
+
+	// null for games from the initial position
+	public String fen(long game) {
+		long offset = offset(game);
+		MappedByteBuffer segment = segment(offset);
+		int local = local(offset);
+		if ((segment.get(local) & HAS_FEN) == 0) return null;
+
+		byte[] fen = new byte[Short.toUnsignedInt(segment.getShort(local + 4))];
+		for (int i = 0; i < fen.length; i++) {
+			fen[i] = segment.get(local + 6 + i);
+		}
+
+		return new String(fen, StandardCharsets.US_ASCII);
+	}
+
+	// the ply-th move of the game in the 16-bit Move encoding, read straight from the mapping
+	public int move(long game, int ply) {
+		long offset = offset(game);
+		MappedByteBuffer segment = segment(offset);
+
+		return Short.toUnsignedInt(segment.getShort(movesStart(segment, local(offset)) + 2 * ply));
+	}
+
+	// puts the match on the game's start position and applies its first plies moves, all of them when negative
+	public void replay(long game, ChessMatch match, int plies) {
+		long offset = offset(game);
+		MappedByteBuffer segment = segment(offset);
+		int local = local(offset);
+		int length = Short.toUnsignedInt(segment.getShort(local + 2));
+		String fen = fen(game);
+
+		match.setFen(fen != null ? fen : START);
+
+		// moves were checked against the rules when the archive was written
+		int position = movesStart(segment, local);
+		int end = plies < 0 ? length : Math.min(plies, length);
+		for (int i = 0; i < end; i++) {
+			match.makeMove(Short.toUnsignedInt(segment.getShort(position + 2 * i)));
+		}
+	}
+
+	public void replay(long game, ChessMatch match) {
+		replay(game, match, -1);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	static int resultCode(String result) {
+		for (int i = 1; i < RESULTS.length; i++) {
+			if (RESULTS[i].equals(result)) return i;
+		}
+
+		return RESULT_UNKNOWN;
+	}
+
+	private long offset(long game) {
+		if (game < 0 || game >= games) {
+			throw new IndexOutOfBoundsException("Game " + game + " not in the archive of " + games);
+		}
+
+		long entry = indexOffset + game * 8;
+		return segment(entry).getLong(local(entry));
+	}
+
+	private static int movesStart(MappedByteBuffer segment, int local) {
+		if ((segment.get(local) & HAS_FEN) == 0) return local + 4;
+
+		return local + 6 + Short.toUnsignedInt(segment.getShort(local + 4));
+	}
+
+	private MappedByteBuffer segment(long offset) {
+		return segments[(int) (offset / SEGMENT_SIZE)];
+	}
+
+	private static int local(long offset) {
+		return (int) (offset % SEGMENT_SIZE);
+	}
+}
@@ -0,0 +1,136 @@
+package chess.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import chess.ChessMatch;
+import chess.MoveList;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import chess.pgn.San;
+
+// writes the archive format read by GameArchive, see there for the layout
+public class GameArchiveWriter implements Closeable {
+	private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	private final Path path;
+	private final DataOutputStream out;
+	private long position;
+	private long[] offsets = new long[1024];
+	private int count;
+	private long skipped;
+
+	private final ChessMatch match = new ChessMatch();
+	private final MoveList moves = new MoveList();
+	private int[] plies = new int[512];
+
+	public GameArchiveWriter(Path path) throws IOException {
+		this.path = path;
+		this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+		// header, completed by close()
+		out.write(new byte[GameArchive.HEADER_SIZE]);
+		position = GameArchive.HEADER_SIZE;
+	}
+
+	// converts a whole PGN file, games that don't replay or don't fit a record are skipped; returns the number of
+	// games written
+	public static long convert(Path pgn, Path archive) throws IOException {
+		try (PgnReader reader = new PgnReader(pgn); GameArchiveWriter writer = new GameArchiveWriter(archive)) {
+			long written = 0;
+			PgnGame game;
+			while ((game = reader.next()) != null) {
+				if (writer.add(game)) written++;
+			}
+			return written;
+		}
+	}
+
+	// false when the game doesn't replay or is longer than a record holds, it is left out of the archive. As in
+	// PgnReplayer, any error while replaying counts as a bad game rather than stopping the conversion
+	public boolean add(PgnGame game) throws IOException {
+		String fen = game.getFen();
+		if (game.getMoves().size() > GameArchive.MAX_PLIES
+				|| (fen != null && fen.length() > GameArchive.MAX_FEN_LENGTH)) {
+			skipped++;
+			return false;
+		}
+
+		int length = 0;
+		try {
+			match.setFen(fen != null ? fen : START);
+			for (String san : game.getMoves()) {
+				int move = San.parse(match, san, moves);
+				match.makeMove(move);
+				if (length == plies.length) plies = Arrays.copyOf(plies, length * 2);
+				plies[length++] = move;
+			}
+		} catch (RuntimeException e) {
+			skipped++;
+			return false;
+		}
+
+		add(fen, GameArchive.resultCode(game.getResult()), plies, length);
+		return true;
+	}
+
+	// moves in the 16-bit Move encoding, applied from the FEN or the initial position when it is null
+	public void add(String fen, int result, int[] moves, int length) throws IOException {
+		if (length > GameArchive.MAX_PLIES) {
+			throw new IllegalArgumentException("Games are limited to " + GameArchive.MAX_PLIES + " plies");
+		}
+		byte[] fenBytes = fen == null ? null : fen.getBytes(StandardCharsets.US_ASCII);
+		if (fenBytes != null && fenBytes.length > GameArchive.MAX_FEN_LENGTH) {
+			throw new IllegalArgumentException("FENs are limited to " + GameArchive.MAX_FEN_LENGTH + " characters");
+		}
+		if (count == offsets.length) offsets = Arrays.copyOf(offsets, count * 2);
+		offsets[count++] = position;
+
+		out.writeByte(fenBytes == null ? 0 : GameArchive.HAS_FEN);
+		out.writeByte(result);
+		out.writeShort(length);
+		position += 4;
+
+		if (fenBytes != null) {
+			out.writeShort(fenBytes.length);
+			out.write(fenBytes);
+			position += 2 + fenBytes.length;
+		}
+
+		for (int i = 0; i < length; i++) {
+			out.writeShort(moves[i]);
+		}
+		position += 2L * length;
+	}
+
+	public int size() {
+		return count;
+	}
+
+	// games add(PgnGame) left out
+	public long getSkipped() {
+		return skipped;
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (int i = 0; i < count; i++) {
+			out.writeLong(offsets[i]);
+		}
+		out.close();
+
+		ByteBuffer header = ByteBuffer.allocate(GameArchive.HEADER_SIZE);
+		header.putInt(GameArchive.MAGIC).putInt(GameArchive.VERSION).putLong(count).putLong(position).flip();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+			channel.write(header, 0);
+		}
+	}
+}
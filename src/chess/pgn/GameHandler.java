@@ -0,0 +1,8 @@
+package chess.pgn;
+
+import chess.ChessMatch;
+
+public interface GameHandler {
+	// called on the worker thread with the match at the final position, its makeMove history still undoable
+	void onGame(PgnGame game, ChessMatch match);
+}
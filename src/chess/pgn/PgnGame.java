@@ -0,0 +1,38 @@
+package chess.pgn;
+
+import java.util.List;
+import java.util.Map;
+
+public class PgnGame {
+	private final Map<String, String> tags;
+	private final List<String> moves;
+	private final String result;
+
+	public PgnGame(Map<String, String> tags, List<String> moves, String result) {
+		this.tags = tags;
+		this.moves = moves;
+		this.result = result;
+	}
+
+	public Map<String, String> getTags() {
+		return tags;
+	}
+
+	public String getTag(String name) {
+		return tags.get(name);
+	}
+
+	// moves of the main line in SAN, comments, variations and annotations left out
+	public List<String> getMoves() {
+		return moves;
+	}
+
+	public String getResult() {
+		return result;
+	}
+
+	// starting position of games that don't begin from the initial one
+	public String getFen() {
+		return tags.get("FEN");
+	}
+}
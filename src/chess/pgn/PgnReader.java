@@ -0,0 +1,222 @@
+package chess.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// reads one game at a time through a fixed buffer, so archives of any size run in bounded memory
+public class PgnReader implements Closeable {
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private boolean endOfInput;
+
+	// current line, grown to the longest line seen
+	private byte[] line = new byte[256];
+	private int lineLength;
+	// a tag line read while finishing the previous game
+	private boolean lineReady;
+
+	// movetext state, kept across lines
+	private boolean inComment;
+	private int variationDepth;
+
+	public PgnReader(Path path) throws IOException {
+		this(FileChannel.open(path, StandardOpenOption.READ));
+	}
+
+	public PgnReader(ReadableByteChannel channel) {
+		this.channel = channel;
+		buffer.flip();
+	}
+
+	// the next game, or null at the end of the input
+	public PgnGame next() throws IOException {
+		Map<String, String> tags = new LinkedHashMap<String, String>();
+		List<String> moves = new ArrayList<String>();
+		boolean movetext = false;
+		inComment = false;
+		variationDepth = 0;
+
+		while (lineReady || readLine()) {
+			lineReady = false;
+			int start = skipSpaces(0);
+			if (start == lineLength || line[start] == '%') continue;
+
+			if (line[start] == '[' && !inComment && variationDepth == 0) {
+				if (movetext) {
+					// a game without a result token, this line opens the next one
+					lineReady = true;
+					return new PgnGame(tags, moves, "*");
+				}
+				readTag(start, tags);
+			} else {
+				movetext = true;
+				String result = readMovetext(start, moves);
+				if (result != null) {
+					return new PgnGame(tags, moves, result);
+				}
+			}
+		}
+
+		return movetext || !tags.isEmpty() ? new PgnGame(tags, moves, "*") : null;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private boolean readLine() throws IOException {
+		lineLength = 0;
+
+		while (true) {
+			if (!buffer.hasRemaining()) {
+				if (endOfInput || !fill()) {
+					endOfInput = true;
+					return lineLength > 0;
+				}
+			}
+
+			byte b = buffer.get();
+			if (b == '\n') return true;
+			if (b == '\r') continue;
+
+			if (lineLength == line.length) {
+				line = Arrays.copyOf(line, line.length * 2);
+			}
+			line[lineLength++] = b;
+		}
+	}
+
+	private boolean fill() throws IOException {
+		buffer.clear();
+		int read;
+		do {
+			read = channel.read(buffer);
+		} while (read == 0);
+		buffer.flip();
+
+		return read > 0;
+	}
+
+	// [Name "value"], with \" and \\ escapes in the value
+	private void readTag(int start, Map<String, String> tags) {
+		int i = start + 1;
+		int nameStart = i;
+		while (i < lineLength && line[i] != ' ' && line[i] != '"' && line[i] != ']') i++;
+		String name = new String(line, nameStart, i - nameStart, StandardCharsets.US_ASCII);
+
+		while (i < lineLength && line[i] != '"') i++;
+		if (i == lineLength) return;
+
+		byte[] value = new byte[lineLength - i];
+		int length = 0;
+		for (i++; i < lineLength && line[i] != '"'; i++) {
+			if (line[i] == '\\' && i + 1 < lineLength) i++;
+			value[length++] = line[i];
+		}
+
+		tags.put(name, new String(value, 0, length, StandardCharsets.UTF_8));
+	}
+
+	// adds the main line moves to the list and returns the result when the game ends on this line
+	private String readMovetext(int start, List<String> moves) {
+		int i = start;
+
+		while (i < lineLength) {
+			byte b = line[i];
+
+			if (inComment) {
+				if (b == '}') inComment = false;
+				i++;
+			} else if (b == '{') {
+				inComment = true;
+				i++;
+			} else if (b == ';') {
+				return null;
+			} else if (b == '(') {
+				variationDepth++;
+				i++;
+			} else if (b == ')') {
+				if (variationDepth > 0) variationDepth--;
+				i++;
+			} else if (b == ' ' || b == '\t') {
+				i++;
+			} else {
+				int end = i;
+				while (end < lineLength && !isDelimiter(line[end])) end++;
+
+				if (variationDepth == 0) {
+					String result = readToken(i, end, moves);
+					if (result != null) return result;
+				}
+				i = end;
+			}
+		}
+
+		return null;
+	}
+
+	private String readToken(int start, int end, List<String> moves) {
+		byte first = line[start];
+
+		// numeric annotation glyph
+		if (first == '$') return null;
+		if (first == '*') return "*";
+
+		if (first >= '0' && first <= '9') {
+			if (matches(start, end, "1-0") || matches(start, end, "0-1") || matches(start, end, "1/2-1/2")) {
+				return new String(line, start, end - start, StandardCharsets.US_ASCII);
+			}
+			// castling written with zeros
+			if (first == '0' && end - start > 2 && line[start + 1] == '-') {
+				moves.add(new String(line, start, end - start, StandardCharsets.US_ASCII));
+				return null;
+			}
+
+			// move number, possibly glued to the move as in 12.e4
+			while (start < end && line[start] >= '0' && line[start] <= '9') start++;
+			while (start < end && line[start] == '.') start++;
+			if (start == end) return null;
+		}
+
+		while (start < end && line[start] == '.') start++;
+		if (start < end) {
+			moves.add(new String(line, start, end - start, StandardCharsets.US_ASCII));
+		}
+
+		return null;
+	}
+
+	private boolean matches(int start, int end, String token) {
+		if (end - start != token.length()) return false;
+
+		for (int i = 0; i < token.length(); i++) {
+			if (line[start + i] != token.charAt(i)) return false;
+		}
+
+		return true;
+	}
+
+	private static boolean isDelimiter(byte b) {
+		return b == ' ' || b == '\t' || b == '{' || b == '}' || b == '(' || b == ')' || b == ';';
+	}
+
+	private int skipSpaces(int i) {
+		while (i < lineLength && (line[i] == ' ' || line[i] == '\t')) i++;
+
+		return i;
+	}
+}
@@ -0,0 +1,142 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import chess.ChessMatch;
+import chess.MoveList;
+
+// replays an archive through makeMove, the calling thread reads games and the workers replay them
+public class PgnReplayer {
+	private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+	// tells a worker there are no more games
+	private static final PgnGame END = new PgnGame(null, null, null);
+
+	private final int threads;
+
+	public PgnReplayer(int threads) {
+		if (threads < 1) throw new IllegalArgumentException("At least one replay thread is required");
+
+		this.threads = threads;
+	}
+
+	public ReplayStats replay(Path path, GameHandler handler) throws IOException {
+		try (PgnReader reader = new PgnReader(path)) {
+			return replay(reader, handler);
+		}
+	}
+
+	public ReplayStats replay(PgnReader reader, GameHandler handler) throws IOException {
+		long start = System.nanoTime();
+		// bounded, so a slow pool holds back the reader instead of filling the heap
+		BlockingQueue<PgnGame> queue = new ArrayBlockingQueue<PgnGame>(threads * 64);
+		LongAdder games = new LongAdder();
+		LongAdder plies = new LongAdder();
+		LongAdder failures = new LongAdder();
+		AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+		// workers still taking games, once none is left nothing more is queued
+		AtomicInteger live = new AtomicInteger(threads);
+
+		Thread[] workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Thread(() -> work(queue, handler, games, plies, failures, error, live), "pgn-replay-" + i);
+			workers[i].start();
+		}
+
+		try {
+			PgnGame game;
+			while ((game = reader.next()) != null && error.get() == null) {
+				if (!put(queue, game, live)) break;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			try {
+				for (int i = 0; i < threads; i++) {
+					if (!put(queue, END, live)) break;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			for (Thread worker : workers) {
+				join(worker);
+			}
+		}
+
+		Throwable failure = error.get();
+		if (failure instanceof Error) throw (Error) failure;
+		if (failure != null) throw (RuntimeException) failure;
+
+		return new ReplayStats(games.sum(), plies.sum(), failures.sum(), (System.nanoTime() - start) / 1_000_000);
+	}
+
+	private void work(BlockingQueue<PgnGame> queue, GameHandler handler, LongAdder games, LongAdder plies,
+			LongAdder failures, AtomicReference<Throwable> error, AtomicInteger live) {
+		// one match per worker, loaded again for every game
+		ChessMatch match = new ChessMatch();
+		MoveList moves = new MoveList();
+
+		try {
+			PgnGame game;
+			while ((game = queue.take()) != END) {
+				// after a failure the remaining games are only drained, so the reader never blocks on a full queue
+				if (error.get() != null) continue;
+
+				try {
+					match.setFen(game.getFen() != null ? game.getFen() : START);
+					for (String san : game.getMoves()) {
+						match.makeMove(San.parse(match, san, moves));
+					}
+				} catch (RuntimeException e) {
+					// a bad game, illegal or malformed in any way, costs only itself
+					failures.increment();
+					games.increment();
+					continue;
+				}
+
+				games.increment();
+				plies.add(game.getMoves().size());
+
+				// an error in the handler is a bug of the caller, not of the game, so it stops the replay
+				try {
+					if (handler != null) {
+						handler.onGame(game, match);
+					}
+				} catch (RuntimeException e) {
+					error.compareAndSet(null, e);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Error e) {
+			// the worker is gone, the replay stops and the caller gets the error
+			error.compareAndSet(null, e);
+		} finally {
+			live.decrementAndGet();
+		}
+	}
+
+	// waits for room in the queue only while some worker is left to take the game, false when none is
+	private static boolean put(BlockingQueue<PgnGame> queue, PgnGame game, AtomicInteger live)
+			throws InterruptedException {
+		while (live.get() > 0) {
+			if (queue.offer(game, 100, TimeUnit.MILLISECONDS)) return true;
+		}
+
+		return false;
+	}
+
+	private static void join(Thread worker) {
+		try {
+			worker.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package chess.pgn;
+
+public class ReplayStats {
+	private final long games;
+	private final long plies;
+	private final long failures;
+	private final long millis;
+
+	public ReplayStats(long games, long plies, long failures, long millis) {
+		this.games = games;
+		this.plies = plies;
+		this.failures = failures;
+		this.millis = millis;
+	}
+
+	public long getGames() {
+		return games;
+	}
+
+	public long getPlies() {
+		return plies;
+	}
+
+	// games stopped at an illegal, ambiguous or unreadable move
+	public long getFailures() {
+		return failures;
+	}
+
+	public long getMillis() {
+		return millis;
+	}
+
+	@Override
+	public String toString() {
+		long gamesPerSecond = millis > 0 ? games * 1000 / millis : 0;
+		return games + " games, " + plies + " plies, " + failures + " failed in " + millis + " ms (" + gamesPerSecond
+				+ " games/s)";
+	}
+}
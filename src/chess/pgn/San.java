@@ -0,0 +1,128 @@
+package chess.pgn;
+
+import chess.ChessBoard;
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
+
+public final class San {
+
+	private San() {
+	}
+
+	// resolves a SAN move against the legal moves of the match, the list is used as the buffer for them
+	public static int parse(ChessMatch match, String san, MoveList moves) {
+		int end = san.length();
+		while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) end--;
+
+		match.generateLegalMoves(moves);
+
+		if (isCastling(san, end)) {
+			int flags = end == 5 ? Move.QUEEN_CASTLE : Move.KING_CASTLE;
+			for (int i = 0; i < moves.size(); i++) {
+				if (Move.flags(moves.get(i)) == flags) return moves.get(i);
+			}
+			throw new ChessException("Illegal move " + san);
+		}
+
+		if (end < 2) {
+			throw new ChessException("Invalid move " + san);
+		}
+
+		PieceType type = PieceType.PAWN;
+		int start = 0;
+		if ("NBRQK".indexOf(san.charAt(0)) >= 0) {
+			type = pieceType(san.charAt(0));
+			start = 1;
+		}
+
+		// #especial move promotion, written e8=Q or e8Q
+		PieceType promotion = null;
+		if (type == PieceType.PAWN && "NBRQ".indexOf(san.charAt(end - 1)) >= 0) {
+			promotion = pieceType(san.charAt(end - 1));
+			end--;
+			if (end > 0 && san.charAt(end - 1) == '=') end--;
+		}
+
+		if (end - start < 2) {
+			throw new ChessException("Invalid move " + san);
+		}
+		int to = square(san.charAt(end - 2), san.charAt(end - 1));
+		if (to < 0) {
+			throw new ChessException("Invalid move " + san);
+		}
+
+		// whatever stands between the piece letter and the target is disambiguation, a file, a rank or both
+		int fromColumn = -1;
+		int fromRow = -1;
+		for (int i = start; i < end - 2; i++) {
+			char c = san.charAt(i);
+			if (c >= 'a' && c <= 'h') {
+				fromColumn = c - 'a';
+			} else if (c >= '1' && c <= '8') {
+				fromRow = '8' - c;
+			} else if (c != 'x' && c != '-') {
+				throw new ChessException("Invalid move " + san);
+			}
+		}
+
+		ChessBoard board = match.getBoard();
+		long pieces = board.bitboard(match.getCurrentPlayer(), type);
+		int found = Move.NONE;
+
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			int from = Move.from(move);
+
+			if (Move.to(move) != to || (pieces & (1L << from)) == 0) continue;
+			if (fromColumn >= 0 && (from & 7) != fromColumn) continue;
+			if (fromRow >= 0 && (from >>> 3) != fromRow) continue;
+			if (Move.isPromotion(move) ? Move.promotionType(move) != promotion : promotion != null) continue;
+
+			if (found != Move.NONE) {
+				throw new ChessException("Ambiguous move " + san);
+			}
+			found = move;
+		}
+
+		if (found == Move.NONE) {
+			throw new ChessException("Illegal move " + san);
+		}
+
+		return found;
+	}
+
+	private static boolean isCastling(String san, int end) {
+		if (end != 3 && end != 5) return false;
+
+		for (int i = 0; i < end; i++) {
+			char c = san.charAt(i);
+			if (i % 2 == 1 ? c != '-' : c != 'O' && c != '0') return false;
+		}
+
+		return true;
+	}
+
+	private static PieceType pieceType(char c) {
+		switch (c) {
+		case 'N':
+			return PieceType.KNIGHT;
+		case 'B':
+			return PieceType.BISHOP;
+		case 'R':
+			return PieceType.ROOK;
+		case 'Q':
+			return PieceType.QUEEN;
+		default:
+			return PieceType.KING;
+		}
+	}
+
+	private static int square(char file, char rank) {
+		if (file < 'a' || file > 'h' || rank < '1' || rank > '8') return -1;
+
+		return ('8' - rank) * 8 + (file - 'a');
+	}
+}
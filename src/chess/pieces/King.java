@@ -1,10 +1,15 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
+import chess.Bitboards;
+import chess.ChessBoard;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
 
 public class King extends ChessPiece {
 	ChessMatch chessMatch;
@@ -19,97 +24,39 @@ public class King extends ChessPiece {
 		return "K";
 	}
 
-	private boolean testRookCastling(Position position) {
-		ChessPiece p = (ChessPiece) getBoard().piece(position);
-
-		return p != null && p instanceof Rook && p.getColor() == this.getColor() && p.getMoveCount() == 0;
+	@Override
+	public PieceType getType() {
+		return PieceType.KING;
 	}
 
-	private boolean canMove(Position pos) {
-		return !getBoard().thereIsAPiece(pos) || isThereOpponentPiece(pos);
+	private boolean testRookCastling(int square) {
+		ChessPiece p = (ChessPiece) getBoard().piece(square);
+
+		return p != null && p instanceof Rook && p.getColor() == this.getColor() && p.getMoveCount() == 0;
 	}
 
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getRows()];
-
-		Position p = new Position(0, 0);
-
-		// upward
-		p.setValues(this.position.getRow() - 1, this.position.getColumn());
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// downward
-		p.setValues(this.position.getRow() + 1, this.position.getColumn());
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// left
-		p.setValues(this.position.getRow(), this.position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// right
-		p.setValues(this.position.getRow(), this.position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// nw
-		p.setValues(this.position.getRow() - 1, this.position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// ne
-		p.setValues(this.position.getRow() - 1, this.position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// sw
-		p.setValues(this.position.getRow() + 1, this.position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-
-		// se
-		p.setValues(this.position.getRow() + 1, this.position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
+	public void generateMoves(MoveList moves) {
+		ChessBoard board = getChessBoard();
+		int square = getSquare();
+		addMoves(moves, square, Attacks.king(square) & ~board.occupancy(getColor()));
 
 		// #specialMove castling
 		if (getMoveCount() == 0 && !chessMatch.isCheck()) {
-			// #special move castling king side rook
-			Position posR1 = new Position(position.getRow(), position.getColumn() + 3);
-			if (this.testRookCastling(posR1)) {
-				Position pos1 = new Position(position.getRow(), position.getColumn() + 1);
-				Position pos2 = new Position(position.getRow(), position.getColumn() + 2);
+			int column = Bitboards.column(square);
+			long occupied = board.occupancy();
 
-				if (!getBoard().thereIsAPiece(pos1) && !getBoard().thereIsAPiece(pos2)) {
-					mat[position.getRow()][pos2.getColumn()] = true;
-				}
+			// #special move castling king side rook
+			if (column + 3 < 8 && this.testRookCastling(square + 3)
+					&& (occupied & (Bitboards.bit(square + 1) | Bitboards.bit(square + 2))) == 0) {
+				moves.add(Move.of(square, square + 2, Move.KING_CASTLE));
 			}
 
 			// #special move castling queen side rook
-			Position posR2 = new Position(position.getRow(), position.getColumn() - 4);
-			if (this.testRookCastling(posR2)) {
-				Position pos1 = new Position(position.getRow(), position.getColumn() - 1);
-				Position pos2 = new Position(position.getRow(), position.getColumn() - 2);
-				Position pos3 = new Position(position.getRow(), position.getColumn() - 3);
-
-				if (!getBoard().thereIsAPiece(pos1) && !getBoard().thereIsAPiece(pos2)
-						&& !getBoard().thereIsAPiece(pos3)) {
-					mat[position.getRow()][pos2.getColumn()] = true;
-				}
+			if (column - 4 >= 0 && this.testRookCastling(square - 4) && (occupied
+					& (Bitboards.bit(square - 1) | Bitboards.bit(square - 2) | Bitboards.bit(square - 3))) == 0) {
+				moves.add(Move.of(square, square - 2, Move.QUEEN_CASTLE));
 			}
 		}
-
-		return mat;
 	}
 }
@@ -1,10 +1,15 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
+import chess.Bitboards;
+import chess.ChessBoard;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
 
 public class Pawn extends ChessPiece {
 	private ChessMatch chessMatch;
@@ -15,81 +20,42 @@ public class Pawn extends ChessPiece {
 	}
 
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
+	public void generateMoves(MoveList moves) {
+		ChessBoard board = getChessBoard();
+		int square = getSquare();
+		long empty = ~board.occupancy();
+		long enemies = board.occupancy(getColor() == Color.WHITE ? Color.BLACK : Color.WHITE);
+		// white pawns move towards row 0
+		int forward = getColor() == Color.WHITE ? -8 : 8;
 
-		Position p = new Position(0, 0);
+		int one = square + forward;
+		if (one >= 0 && one < 64 && (empty & Bitboards.bit(one)) != 0) {
+			moves.addPawnMove(square, one, Move.QUIET);
 
-		if (getColor() == Color.WHITE) {
-			p.setValues(position.getRow() - 1, position.getColumn());
-			if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			p.setValues(position.getRow() - 2, position.getColumn());
-			Position p2 = new Position(position.getRow() - 1, position.getColumn());
-			if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p) && getBoard().positionExists(p2)
-					&& !getBoard().thereIsAPiece(p2) && getMoveCount() == 0) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			p.setValues(position.getRow() - 1, position.getColumn() - 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			p.setValues(position.getRow() - 1, position.getColumn() + 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-
-			// #especial move en passant white
-			if (position.getRow() == 3) {
-				Position left = new Position(position.getRow(), position.getColumn() - 1);
-				if (getBoard().positionExists(left) && isThereOpponentPiece(left)
-						&& getBoard().piece(left) == chessMatch.getEnPassantVulnerable()) {
-					mat[left.getRow() - 1][left.getColumn()] = true;
-				}
-
-				Position right = new Position(position.getRow(), position.getColumn() + 1);
-				if (getBoard().positionExists(right) && isThereOpponentPiece(right)
-						&& getBoard().piece(right) == chessMatch.getEnPassantVulnerable()) {
-					mat[right.getRow() - 1][right.getColumn()] = true;
-				}
-			}
-		} else {
-			p.setValues(position.getRow() + 1, position.getColumn());
-			if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			p.setValues(position.getRow() + 2, position.getColumn());
-			Position p2 = new Position(position.getRow() + 1, position.getColumn());
-			if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p) && getBoard().positionExists(p2)
-					&& !getBoard().thereIsAPiece(p2) && getMoveCount() == 0) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			p.setValues(position.getRow() + 1, position.getColumn() - 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			p.setValues(position.getRow() + 1, position.getColumn() + 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
+			int two = one + forward;
+			if (getMoveCount() == 0 && two >= 0 && two < 64 && (empty & Bitboards.bit(two)) != 0) {
+				moves.add(Move.of(square, two, Move.DOUBLE_PAWN_PUSH));
 			}
+		}
 
-			// #especial move en passant black
-			if (position.getRow() == 4) {
-				Position left = new Position(position.getRow(), position.getColumn() - 1);
-				if (getBoard().positionExists(left) && isThereOpponentPiece(left)
-						&& getBoard().piece(left) == chessMatch.getEnPassantVulnerable()) {
-					mat[left.getRow() + 1][left.getColumn()] = true;
-				}
+		long captures = Attacks.pawn(getColor(), square) & enemies;
+		while (captures != 0) {
+			moves.addPawnMove(square, Bitboards.first(captures), Move.CAPTURE);
+			captures &= captures - 1;
+		}
 
-				Position right = new Position(position.getRow(), position.getColumn() + 1);
-				if (getBoard().positionExists(right) && isThereOpponentPiece(right)
-						&& getBoard().piece(right) == chessMatch.getEnPassantVulnerable()) {
-					mat[right.getRow() + 1][right.getColumn()] = true;
+		// #especial move en passant
+		ChessPiece vulnerable = chessMatch.getEnPassantVulnerable();
+		if (vulnerable != null && vulnerable.getColor() != getColor()) {
+			long targets = Attacks.pawn(getColor(), square) & empty;
+			while (targets != 0) {
+				int target = Bitboards.first(targets);
+				if (board.piece(target - forward) == vulnerable) {
+					moves.add(Move.of(square, target, Move.EN_PASSANT));
 				}
+				targets &= targets - 1;
 			}
 		}
-		return mat;
 	}
 
 	@Override
@@ -97,4 +63,9 @@ public class Pawn extends ChessPiece {
 		return "P";
 	}
 
-}
\ No newline at end of file
+	@Override
+	public PieceType getType() {
+		return PieceType.PAWN;
+	}
+
+}
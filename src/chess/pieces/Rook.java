@@ -1,9 +1,12 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
+import chess.ChessBoard;
 import chess.ChessPiece;
 import chess.Color;
+import chess.MoveList;
+import chess.PieceType;
 
 public class Rook extends ChessPiece {
 
@@ -17,47 +20,15 @@ public class Rook extends ChessPiece {
 	}
 
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getRows()];
-
-		Position p = new Position(0, 0);
-
-		// upward
-		p.setValues(this.position.getRow() - 1, this.position.getColumn());
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setRow(p.getRow() - 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p))
-			mat[p.getRow()][p.getColumn()] = true;
-
-		// left
-		p.setValues(this.position.getRow(), this.position.getColumn() - 1);
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setColumn(p.getColumn() - 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p))
-			mat[p.getRow()][p.getColumn()] = true;
-
-		// right
-		p.setValues(this.position.getRow(), this.position.getColumn() + 1);
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setColumn(p.getColumn() + 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p))
-			mat[p.getRow()][p.getColumn()] = true;
+	public PieceType getType() {
+		return PieceType.ROOK;
+	}
 
-		// downward
-		p.setValues(this.position.getRow() + 1, this.position.getColumn());
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setRow(p.getRow() + 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p))
-			mat[p.getRow()][p.getColumn()] = true;
+	@Override
+	public void generateMoves(MoveList moves) {
+		ChessBoard board = getChessBoard();
+		int square = getSquare();
 
-		return mat;
+		addMoves(moves, square, Attacks.rook(square, board.occupancy()) & ~board.occupancy(getColor()));
 	}
 }
@@ -0,0 +1,86 @@
+package engine;
+
+import chess.BoardListener;
+import chess.ChessBoard;
+import chess.Color;
+import chess.PieceType;
+
+// the hidden layer of a Network before activation, for both sides, kept in step with a board through its
+// listener: each piece placed or removed adds or subtracts one weight column, and undoing a move reverses it
+public class Accumulator implements BoardListener {
+	private static final Color[] COLORS = Color.values();
+	private static final PieceType[] TYPES = PieceType.values();
+
+	private final Network network;
+	// by perspective, Color ordinal
+	private final short[][] values;
+	private ChessBoard board;
+
+	public Accumulator(Network network) {
+		this.network = network;
+		this.values = new short[2][network.hidden];
+	}
+
+	// follows the board from now on, starting from a full refresh
+	public void attach(ChessBoard board) {
+		detach();
+		this.board = board;
+		refresh();
+		board.setListener(this);
+	}
+
+	public void detach() {
+		if (board != null) {
+			board.setListener(null);
+			board = null;
+		}
+	}
+
+	public void refresh() {
+		for (short[] side : values) {
+			System.arraycopy(network.biases, 0, side, 0, side.length);
+		}
+
+		for (Color color : COLORS) {
+			for (PieceType type : TYPES) {
+				long pieces = board.bitboard(color, type);
+				while (pieces != 0) {
+					placed(color.ordinal() * 6 + type.ordinal(), Long.numberOfTrailingZeros(pieces));
+					pieces &= pieces - 1;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void placed(int piece, int square) {
+		short[] weights = network.inputWeights;
+		int hidden = network.hidden;
+
+		for (int perspective = 0; perspective < 2; perspective++) {
+			short[] side = values[perspective];
+			int offset = Network.input(perspective, piece, square) * hidden;
+			for (int i = 0; i < hidden; i++) {
+				side[i] += weights[offset + i];
+			}
+		}
+	}
+
+	@Override
+	public void removed(int piece, int square) {
+		short[] weights = network.inputWeights;
+		int hidden = network.hidden;
+
+		for (int perspective = 0; perspective < 2; perspective++) {
+			short[] side = values[perspective];
+			int offset = Network.input(perspective, piece, square) * hidden;
+			for (int i = 0; i < hidden; i++) {
+				side[i] -= weights[offset + i];
+			}
+		}
+	}
+
+	short[] values(int perspective) {
+		return values[perspective];
+	}
+}
@@ -0,0 +1,189 @@
+package engine;
+
+import chess.Attacks;
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessMatch;
+import chess.Color;
+import chess.PieceSquareTables;
+import chess.PieceType;
+
+// material and piece-square values come from the board, which keeps them up to date as pieces move; pawn
+// structure, king safety and mobility are computed here. Every term has a midgame and an endgame value, blended
+// by the game phase
+public final class Evaluation {
+	private static final PieceType[] TYPES = PieceType.values();
+
+	// centipawns, indexed by PieceType ordinal
+	private static final int[] VALUES = { 100, 320, 330, 500, 900, 0 };
+
+	private static final int DOUBLED_PAWN = score(-10, -20);
+	private static final int ISOLATED_PAWN = score(-10, -15);
+	private static final int BACKWARD_PAWN = score(-8, -10);
+	// by rank counted from the pawn's own side
+	private static final int[] PASSED_PAWN = { 0, score(5, 10), score(10, 15), score(15, 25), score(30, 45),
+			score(50, 75), score(80, 120), 0 };
+
+	// per square reached beyond a typical count, by PieceType ordinal
+	private static final int[] MOBILITY = { 0, score(4, 4), score(3, 3), score(2, 4), score(1, 2), 0 };
+	private static final int[] MOBILITY_BASE = { 0, 4, 6, 7, 13, 0 };
+
+	private static final int[] KING_ATTACK_WEIGHTS = { 0, 2, 2, 3, 5, 0 };
+	private static final int PAWN_SHIELD_NEAR = score(12, 0);
+	private static final int PAWN_SHIELD_FAR = score(6, 0);
+
+	private Evaluation() {
+	}
+
+	public static int value(PieceType type) {
+		return VALUES[type.ordinal()];
+	}
+
+	// from the point of view of the side to move
+	public static int evaluate(ChessMatch match) {
+		return evaluate(match, null);
+	}
+
+	// the pawn structure is looked up in the table when there is one
+	public static int evaluate(ChessMatch match, PawnHashTable pawnTable) {
+		ChessBoard board = match.getBoard();
+		int pawns = pawnTable != null ? pawnTable.score(board) : pawnStructure(board);
+		int terms = pawns + pieces(board, Color.WHITE) - pieces(board, Color.BLACK);
+
+		int phase = Math.min(board.phase(), PieceSquareTables.MAX_PHASE);
+		int midgame = board.midgameScore() + midgame(terms);
+		int endgame = board.endgameScore() + endgame(terms);
+		int score = (midgame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+
+		return match.getCurrentPlayer() == Color.WHITE ? score : -score;
+	}
+
+	// doubled, isolated, backward and passed pawns, white minus black
+	static int pawnStructure(ChessBoard board) {
+		return pawns(board, Color.WHITE) - pawns(board, Color.BLACK);
+	}
+
+	private static int pawns(ChessBoard board, Color color) {
+		long own = board.bitboard(color, PieceType.PAWN);
+		long enemy = board.bitboard(opponent(color), PieceType.PAWN);
+		int score = 0;
+
+		for (int column = 0; column < 8; column++) {
+			int count = Long.bitCount(own & (Bitboards.FILE_A << column));
+			if (count > 1) score += DOUBLED_PAWN * (count - 1);
+		}
+
+		long pawns = own;
+		while (pawns != 0) {
+			int square = Long.numberOfTrailingZeros(pawns);
+			pawns &= pawns - 1;
+
+			long file = Bitboards.FILE_A << (square & 7);
+			long adjacent = ((file << 1) & ~Bitboards.FILE_A) | ((file >>> 1) & ~Bitboards.FILE_H);
+			// white pawns move towards row 0
+			int row = square >>> 3;
+			long ahead = color == Color.WHITE ? (1L << (row * 8)) - 1 : -1L << ((row + 1) * 8);
+
+			if ((own & adjacent) == 0) {
+				score += ISOLATED_PAWN;
+			} else if ((own & adjacent & ~ahead) == 0) {
+				// no neighbour level or behind to support its advance, and an enemy pawn guards the square in front
+				int stop = color == Color.WHITE ? square - 8 : square + 8;
+				if ((Attacks.pawn(color, stop) & enemy) != 0) score += BACKWARD_PAWN;
+			}
+
+			if ((enemy & (file | adjacent) & ahead) == 0) {
+				score += PASSED_PAWN[color == Color.WHITE ? 7 - row : row];
+			}
+		}
+
+		return score;
+	}
+
+	// mobility of the pieces of one side, their pressure on the enemy king and the pawns in front of their own
+	private static int pieces(ChessBoard board, Color color) {
+		Color enemy = opponent(color);
+		long occupied = board.occupancy();
+		long own = board.occupancy(color);
+		// squares attacked by enemy pawns don't count as mobility
+		long enemyPawns = board.bitboard(enemy, PieceType.PAWN);
+		long covered = enemy == Color.WHITE
+				? ((enemyPawns >>> 7) & ~Bitboards.FILE_A) | ((enemyPawns >>> 9) & ~Bitboards.FILE_H)
+				: ((enemyPawns << 7) & ~Bitboards.FILE_H) | ((enemyPawns << 9) & ~Bitboards.FILE_A);
+		long available = ~own & ~covered;
+
+		int enemyKing = board.kingSquare(enemy);
+		long kingZone = enemyKing < 0 ? 0 : Attacks.king(enemyKing) | (1L << enemyKing);
+		int attackers = 0;
+		int attackWeight = 0;
+		int score = 0;
+
+		for (int type = PieceType.KNIGHT.ordinal(); type <= PieceType.QUEEN.ordinal(); type++) {
+			long pieces = board.bitboard(color, TYPES[type]);
+
+			while (pieces != 0) {
+				int square = Long.numberOfTrailingZeros(pieces);
+				pieces &= pieces - 1;
+
+				long attacks = attacks(type, square, occupied);
+				score += MOBILITY[type] * (Long.bitCount(attacks & available) - MOBILITY_BASE[type]);
+
+				int hits = Long.bitCount(attacks & kingZone);
+				if (hits > 0) {
+					attackers++;
+					attackWeight += KING_ATTACK_WEIGHTS[type] * hits;
+				}
+			}
+		}
+
+		// a lone attacker is rarely dangerous, more of them grow quickly
+		if (attackers > 1) {
+			score += score(Math.min(attackWeight * attackWeight, 400), 0);
+		}
+
+		return score + pawnShield(board, color);
+	}
+
+	private static int pawnShield(ChessBoard board, Color color) {
+		int king = board.kingSquare(color);
+		if (king < 0) return 0;
+
+		// only a king still on its first two ranks is sheltered by pawns
+		int row = king >>> 3;
+		if (color == Color.WHITE ? row < 6 : row > 1) return 0;
+
+		long file = Bitboards.FILE_A << (king & 7);
+		long files = file | ((file << 1) & ~Bitboards.FILE_A) | ((file >>> 1) & ~Bitboards.FILE_H);
+		int forward = color == Color.WHITE ? -1 : 1;
+		long near = files & (Bitboards.RANK_8 << ((row + forward) * 8));
+		long far = files & (Bitboards.RANK_8 << ((row + 2 * forward) * 8));
+
+		long pawns = board.bitboard(color, PieceType.PAWN);
+		return PAWN_SHIELD_NEAR * Long.bitCount(pawns & near) + PAWN_SHIELD_FAR * Long.bitCount(pawns & far);
+	}
+
+	private static long attacks(int type, int square, long occupied) {
+		if (type == PieceType.KNIGHT.ordinal()) return Attacks.knight(square);
+		if (type == PieceType.BISHOP.ordinal()) return Attacks.bishop(square, occupied);
+		if (type == PieceType.ROOK.ordinal()) return Attacks.rook(square, occupied);
+
+		return Attacks.queen(square, occupied);
+	}
+
+	private static Color opponent(Color color) {
+		return color == Color.WHITE ? Color.BLACK : Color.WHITE;
+	}
+
+	// a midgame and an endgame value in one int, so the terms can be added up together
+	static int score(int midgame, int endgame) {
+		return (endgame << 16) + midgame;
+	}
+
+	static int midgame(int score) {
+		return (short) score;
+	}
+
+	static int endgame(int score) {
+		return (short) ((score + 0x8000) >> 16);
+	}
+}
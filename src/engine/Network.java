@@ -0,0 +1,95 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import chess.Color;
+
+// efficiently updatable network: 768 piece-square inputs seen from each side, one hidden layer of int16 units
+// shared by both sides, clipped ReLU, then a single output. File layout, little endian: magic, hidden size,
+// input weights (hidden int16 per input), hidden biases (int16), output weights (int16, side to move's half
+// first), output bias (int32)
+public class Network {
+	static final int MAGIC = 0x4E4E5531;
+	static final int INPUTS = 768;
+	// quantization of the hidden layer and of the output weights
+	static final int QA = 255;
+	static final int QB = 64;
+	// centipawns per unit of output
+	static final int SCALE = 400;
+
+	final int hidden;
+	final short[] inputWeights;
+	final short[] biases;
+	final short[] outputWeights;
+	final int outputBias;
+
+	// the mapping is copied into plain arrays once; the output layer runs on VectorDot when the runtime offers the
+	// Vector API, and the loops over them are simple enough for the JIT to vectorize otherwise
+	public Network(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			data.order(ByteOrder.LITTLE_ENDIAN);
+
+			if (channel.size() < 8 || data.getInt(0) != MAGIC) {
+				throw new IOException("Not a network file: " + path);
+			}
+			hidden = data.getInt(4);
+			if (hidden <= 0 || channel.size() != 8 + 2L * hidden * (INPUTS + 3) + 4) {
+				throw new IOException("Truncated or corrupt network file: " + path);
+			}
+
+			data.position(8);
+			ShortBuffer shorts = data.slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+			inputWeights = new short[INPUTS * hidden];
+			biases = new short[hidden];
+			outputWeights = new short[2 * hidden];
+			shorts.get(inputWeights).get(biases).get(outputWeights);
+			outputBias = data.getInt(8 + 2 * hidden * (INPUTS + 3));
+		}
+	}
+
+	public int getHiddenSize() {
+		return hidden;
+	}
+
+	// centipawns from the point of view of the side to move; the dot products stay in an int as long as the
+	// output weights are in the range a trainer quantizing by QB produces, the output bias is added in a long
+	public int evaluate(Accumulator accumulator, Color sideToMove) {
+		short[] us = accumulator.values(sideToMove.ordinal());
+		short[] them = accumulator.values(1 - sideToMove.ordinal());
+		long sum = outputBias;
+
+		if (VectorDot.AVAILABLE) {
+			sum += VectorDot.clippedDot(us, outputWeights, 0, hidden, (short) QA);
+			sum += VectorDot.clippedDot(them, outputWeights, hidden, hidden, (short) QA);
+		} else {
+			sum += clippedDot(us, 0);
+			sum += clippedDot(them, hidden);
+		}
+
+		return (int) (sum * SCALE / (QA * QB));
+	}
+
+	private int clippedDot(short[] values, int offset) {
+		int sum = 0;
+		for (int i = 0; i < hidden; i++) {
+			sum += Math.min(Math.max(values[i], 0), QA) * outputWeights[offset + i];
+		}
+		return sum;
+	}
+
+	// the input a piece sets for one side: that side's own pieces first, and the board mirrored by rows for black
+	static int input(int perspective, int piece, int square) {
+		int color = piece / 6;
+		int type = piece % 6;
+		int relative = color == perspective ? type : 6 + type;
+
+		return relative * 64 + (perspective == Color.WHITE.ordinal() ? square : square ^ 56);
+	}
+}
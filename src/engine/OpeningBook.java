@@ -0,0 +1,151 @@
+package engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+
+// this engine's own book format, written by OpeningBookBuilder: 16-byte big-endian entries (key, move, weight, learn)
+// sorted by unsigned key. The entry layout and the move bits are borrowed from Polyglot, but the keys are
+// ChessMatch.positionKey() values rather than Polyglot's, so Polyglot .bin books can't be read (they would load
+// and never match a position) and these books can't be used by Polyglot tools
+public class OpeningBook implements Closeable {
+	static final int ENTRY_SIZE = 16;
+	// a mapping is limited to 2 GB, so large books are mapped in segments; entries never cross one since the
+	// segment size is a multiple of the entry size
+	private static final int SEGMENT_BITS = 30;
+	private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer[] segments;
+	private final int size;
+	private final MoveList moves = new MoveList();
+
+	public OpeningBook(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long bytes = channel.size();
+			if (bytes % ENTRY_SIZE != 0 || bytes / ENTRY_SIZE > Integer.MAX_VALUE) {
+				throw new IOException("Not an opening book: " + path);
+			}
+
+			int count = (int) ((bytes + SEGMENT_MASK) >>> SEGMENT_BITS);
+			segments = new MappedByteBuffer[Math.max(count, 1)];
+			for (int i = 0; i < segments.length; i++) {
+				long start = (long) i << SEGMENT_BITS;
+				long length = Math.min(SEGMENT_MASK + 1, bytes - start);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+			}
+			this.size = (int) (bytes / ENTRY_SIZE);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	// a legal book move picked with probability proportional to its weight, or Move.NONE out of book;
+	// not thread safe because of the move buffer, each search thread opens its own book
+	public int probe(ChessMatch match) {
+		long key = match.positionKey();
+		int first = lowerBound(key);
+
+		int total = 0;
+		for (int i = first; i < size && key(i) == key; i++) {
+			total += weight(i);
+		}
+		if (total == 0) return Move.NONE;
+
+		int pick = ThreadLocalRandom.current().nextInt(total);
+		for (int i = first; i < size && key(i) == key; i++) {
+			pick -= weight(i);
+			if (pick < 0) {
+				return toMove(match, bookMove(i));
+			}
+		}
+
+		return Move.NONE;
+	}
+
+	// the heaviest book move, for deterministic play
+	public int bestMove(ChessMatch match) {
+		long key = match.positionKey();
+		int best = -1;
+
+		for (int i = lowerBound(key); i < size && key(i) == key; i++) {
+			if (weight(i) > 0 && (best < 0 || weight(i) > weight(best))) best = i;
+		}
+
+		return best < 0 ? Move.NONE : toMove(match, bookMove(best));
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	// move bits as Polyglot lays them out: to file, to rank, from file, from rank, promotion piece; ranks count from
+	// white's side and castling is written as the king taking its own rook
+	static int encode(int move) {
+		int from = Move.from(move);
+		int to = Move.to(move);
+
+		if (Move.flags(move) == Move.KING_CASTLE) to = from + 3;
+		if (Move.flags(move) == Move.QUEEN_CASTLE) to = from - 4;
+
+		int promotion = Move.isPromotion(move) ? Move.promotionType(move).ordinal() : 0;
+		return (to & 7) | ((7 - (to >>> 3)) << 3) | ((from & 7) << 6) | ((7 - (from >>> 3)) << 9) | (promotion << 12);
+	}
+
+	// matched against the legal moves, so a stale or colliding entry can never play an illegal move
+	private int toMove(ChessMatch match, int bookMove) {
+		match.generateLegalMoves(moves);
+
+		for (int i = 0; i < moves.size(); i++) {
+			if (encode(moves.get(i)) == bookMove) return moves.get(i);
+		}
+
+		return Move.NONE;
+	}
+
+	private int lowerBound(long key) {
+		int low = 0;
+		int high = size;
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (Long.compareUnsigned(key(middle), key) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		return low;
+	}
+
+	private long key(int index) {
+		long offset = (long) index * ENTRY_SIZE;
+		return segments[(int) (offset >>> SEGMENT_BITS)].getLong((int) (offset & SEGMENT_MASK));
+	}
+
+	private int bookMove(int index) {
+		long offset = (long) index * ENTRY_SIZE + 8;
+		return segments[(int) (offset >>> SEGMENT_BITS)].getShort((int) (offset & SEGMENT_MASK)) & 0xFFFF;
+	}
+
+	private int weight(int index) {
+		long offset = (long) index * ENTRY_SIZE + 10;
+		return segments[(int) (offset >>> SEGMENT_BITS)].getShort((int) (offset & SEGMENT_MASK)) & 0xFFFF;
+	}
+}
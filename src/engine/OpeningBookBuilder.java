@@ -0,0 +1,85 @@
+package engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.archive.GameArchive;
+
+// collects the moves played from each position and writes them as an OpeningBook file
+public class OpeningBookBuilder {
+	private static final int MAX_WEIGHT = 0xFFFF;
+
+	// position key to encoded book move to weight
+	private final Map<Long, Map<Integer, Integer>> positions = new HashMap<Long, Map<Integer, Integer>>();
+
+	public void add(long key, int move, int weight) {
+		Map<Integer, Integer> moves = positions.computeIfAbsent(key, k -> new HashMap<Integer, Integer>());
+		moves.merge(OpeningBook.encode(move), weight, Integer::sum);
+	}
+
+	// the first plies of every game, weighted the way Polyglot weights its books: 2 for a win of the side that played the move,
+	// 1 for a draw; after losses and unknown results the move is kept with weight 0 and never picked
+	public void addGames(GameArchive archive, int plies) {
+		ChessMatch match = new ChessMatch();
+
+		for (long game = 0; game < archive.size(); game++) {
+			String result = archive.result(game);
+			archive.replay(game, match, 0);
+
+			int length = Math.min(plies, archive.length(game));
+			for (int ply = 0; ply < length; ply++) {
+				int move = archive.move(game, ply);
+				Color mover = match.getCurrentPlayer();
+
+				int weight = 0;
+				if (result.equals("1/2-1/2")) weight = 1;
+				if (result.equals(mover == Color.WHITE ? "1-0" : "0-1")) weight = 2;
+
+				add(match.positionKey(), move, weight);
+				match.makeMove(move);
+			}
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Map<Integer, Integer> moves : positions.values()) {
+			size += moves.size();
+		}
+
+		return size;
+	}
+
+	public void write(Path path) throws IOException {
+		List<Long> keys = new ArrayList<Long>(positions.keySet());
+		keys.sort(Long::compareUnsigned);
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+			for (long key : keys) {
+				Map<Integer, Integer> moves = positions.get(key);
+				int max = 0;
+				for (int weight : moves.values()) {
+					max = Math.max(max, weight);
+				}
+
+				for (Map.Entry<Integer, Integer> entry : moves.entrySet()) {
+					// scaled down together when a count no longer fits the 16-bit weight
+					long weight = max > MAX_WEIGHT ? (long) entry.getValue() * MAX_WEIGHT / max : entry.getValue();
+					out.writeLong(key);
+					out.writeShort(entry.getKey());
+					out.writeShort((int) weight);
+					out.writeInt(0);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.Snapshot;
+
+// Lazy SMP: every thread runs its own iterative deepening on a private copy of the match, and they only
+// cooperate through the shared transposition table
+public class ParallelSearch implements AutoCloseable {
+	private final TranspositionTable table;
+	private OpeningBook book;
+	private final Search[] searches;
+	// one match per helper, restored from a snapshot of the searched position at every search
+	private final ChessMatch[] positions;
+	private final ExecutorService helpers;
+
+	public ParallelSearch(TranspositionTable table, int threads) {
+		if (threads < 1) throw new IllegalArgumentException("At least one search thread is required");
+
+		this.table = table;
+		this.searches = new Search[threads];
+		this.positions = new ChessMatch[threads];
+		for (int i = 0; i < threads; i++) {
+			searches[i] = new Search(table);
+		}
+
+		this.helpers = threads > 1 ? Executors.newFixedThreadPool(threads - 1, r -> {
+			Thread t = new Thread(r, "search-helper");
+			t.setDaemon(true);
+			return t;
+		}) : null;
+	}
+
+	public int getThreads() {
+		return searches.length;
+	}
+
+	public TranspositionTable getTable() {
+		return table;
+	}
+
+	// moves found in the book are played without searching
+	public void setBook(OpeningBook book) {
+		this.book = book;
+	}
+
+	// shared by every thread, probes don't lock
+	public void setTablebase(Tablebase tablebase) {
+		for (Search search : searches) {
+			search.setTablebase(tablebase);
+		}
+	}
+
+	// every thread gets its own accumulator over the shared weights
+	public void setNetwork(Network network) {
+		for (Search search : searches) {
+			search.setNetwork(network);
+		}
+	}
+
+	// the calling thread searches the given match and decides when to stop, its result is the one returned
+	// with the nodes of every thread added up
+	public SearchResult search(ChessMatch match, int maxDepth, long timeMillis, long maxNodes) {
+		int bookMove = book != null ? book.probe(match) : Move.NONE;
+		if (bookMove != Move.NONE) {
+			return new SearchResult(bookMove, 0, 0, 0, 0);
+		}
+
+		List<Future<SearchResult>> results = new ArrayList<Future<SearchResult>>();
+		table.newSearch();
+		Snapshot snapshot = match.snapshot();
+
+		for (int i = 1; i < searches.length; i++) {
+			Search helper = searches[i];
+			if (positions[i] == null) {
+				positions[i] = ChessMatch.fromSnapshot(snapshot);
+			} else {
+				positions[i].restore(snapshot);
+			}
+			ChessMatch copy = positions[i];
+			// half of the helpers start one ply deeper, so the threads spread over two depths at a time
+			int firstDepth = 1 + (i & 1);
+
+			helper.resume();
+			results.add(helpers.submit(() -> helper.iterate(copy, maxDepth, 0, 0, firstDepth)));
+		}
+
+		Search main = searches[0];
+		main.resume();
+		SearchResult result = null;
+		long nodes = 0;
+		Throwable failure = null;
+
+		try {
+			result = main.iterate(match, maxDepth, timeMillis, maxNodes, 1);
+			nodes = result.getNodes();
+		} finally {
+			// the helpers have no limits of their own, so they are stopped and joined even when the main search fails
+			for (int i = 1; i < searches.length; i++) {
+				searches[i].stop();
+			}
+
+			for (Future<SearchResult> future : results) {
+				try {
+					nodes += future.get().getNodes();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} catch (ExecutionException e) {
+					if (failure == null) failure = e.getCause();
+				}
+			}
+		}
+
+		if (failure != null) {
+			throw new IllegalStateException("Search thread failed", failure);
+		}
+
+		return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), nodes, result.getMillis());
+	}
+
+	public void stop() {
+		for (Search search : searches) {
+			search.stop();
+		}
+	}
+
+	@Override
+	public void close() {
+		stop();
+		if (helpers != null) {
+			helpers.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package engine;
+
+import chess.ChessBoard;
+
+// pawn structure scores by pawn key. Pawns move seldom, so most evaluations find their structure here; one table
+// per search thread, it is not thread safe
+public class PawnHashTable {
+	private final long[] keys;
+	private final int[] scores;
+	private final int mask;
+	private long hits;
+	private long misses;
+
+	public PawnHashTable(int entries) {
+		if (entries < 1) throw new IllegalArgumentException("The table needs at least one entry");
+
+		int size = Integer.highestOneBit(entries);
+		this.keys = new long[size];
+		this.scores = new int[size];
+		this.mask = size - 1;
+		// a key of 0 is the board without pawns, whose structure scores 0 just like the empty entries
+	}
+
+	// the packed midgame and endgame pawn structure score of the board, white minus black
+	public int score(ChessBoard board) {
+		long key = board.pawnKey();
+		int index = (int) key & mask;
+
+		if (keys[index] == key) {
+			hits++;
+			return scores[index];
+		}
+
+		misses++;
+		int score = Evaluation.pawnStructure(board);
+		keys[index] = key;
+		scores[index] = score;
+		return score;
+	}
+
+	public int size() {
+		return keys.length;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+}
@@ -0,0 +1,8 @@
+package engine;
+
+public enum ReplacementPolicy {
+	// two slots per bucket: one kept for the deepest entry of the current search, one always overwritten
+	DEPTH_PREFERRED,
+	// one slot per bucket, the newest entry always wins
+	ALWAYS_REPLACE
+}
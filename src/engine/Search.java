@@ -0,0 +1,421 @@
+package engine;
+
+import chess.ChessBoard;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
+
+public class Search {
+	public static final int INFINITE = 32001;
+	public static final int MATE = 32000;
+	public static final int MAX_PLY = 128;
+	// tablebase wins rank below every mate the search can see
+	public static final int TABLEBASE_WIN = MATE - 2 * MAX_PLY;
+	// the lowest a tablebase win can be scored, found at the deepest ply with the longest tabled mate
+	private static final int MIN_TABLEBASE_WIN = TABLEBASE_WIN - MAX_PLY - Tablebase.MAX_STORED;
+
+	private static final int TABLE_MOVE_SCORE = 1_000_000;
+	private static final int CAPTURE_SCORE = 100_000;
+	private static final int PROMOTION_SCORE = 90_000;
+	private static final int KILLER_SCORE = 80_000;
+	private static final int HISTORY_LIMIT = 50_000;
+
+	private final TranspositionTable table;
+	// private to the thread running this search, unlike the transposition table
+	private final PawnHashTable pawnTable = new PawnHashTable(1 << 14);
+	private OpeningBook book;
+	private Tablebase tablebase;
+	private Network network;
+	private Accumulator accumulator;
+
+	// one move list and score buffer per ply so the recursion doesn't allocate
+	private final MoveList[] moveLists = new MoveList[MAX_PLY];
+	private final int[][] moveScores = new int[MAX_PLY][256];
+	private final int[][] killers = new int[MAX_PLY][2];
+	private final int[][] history = new int[64][64];
+
+	private ChessMatch match;
+	private long nodes;
+	private long maxNodes;
+	private long deadline;
+	private int rootBestMove;
+	private volatile boolean stopped;
+
+	public Search(TranspositionTable table) {
+		this.table = table;
+
+		for (int i = 0; i < MAX_PLY; i++) {
+			moveLists[i] = new MoveList();
+		}
+	}
+
+	public TranspositionTable getTable() {
+		return table;
+	}
+
+	public PawnHashTable getPawnTable() {
+		return pawnTable;
+	}
+
+	// moves found in the book are played without searching
+	public void setBook(OpeningBook book) {
+		this.book = book;
+	}
+
+	// positions the tables cover are scored from them below the root instead of being searched
+	public void setTablebase(Tablebase tablebase) {
+		this.tablebase = tablebase;
+	}
+
+	// evaluates with the network instead of the hand written terms, null to go back to them
+	public void setNetwork(Network network) {
+		this.network = network;
+		this.accumulator = network != null ? new Accumulator(network) : null;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	// may be called from another thread, the search returns its last completed iteration
+	public void stop() {
+		stopped = true;
+	}
+
+	// iterative deepening on the side to move, limits of 0 mean no limit; the match is left as it was given
+	public SearchResult search(ChessMatch match, int maxDepth, long timeMillis, long maxNodes) {
+		int bookMove = book != null ? book.probe(match) : Move.NONE;
+		if (bookMove != Move.NONE) {
+			return new SearchResult(bookMove, 0, 0, 0, 0);
+		}
+
+		stopped = false;
+		table.newSearch();
+
+		return iterate(match, maxDepth, timeMillis, maxNodes, 1);
+	}
+
+	// clears the stop flag on the calling thread, so a stop() racing with a helper's start isn't lost
+	void resume() {
+		stopped = false;
+	}
+
+	// the search loop without resetting the stop flag or ageing the table, ParallelSearch does both once for all
+	// its threads and varies the first depth of the helpers
+	SearchResult iterate(ChessMatch match, int maxDepth, long timeMillis, long maxNodes, int firstDepth) {
+		if (accumulator == null) return deepen(match, maxDepth, timeMillis, maxNodes, firstDepth);
+
+		// the accumulator follows the board only while this search runs on it
+		accumulator.attach(match.getBoard());
+		try {
+			return deepen(match, maxDepth, timeMillis, maxNodes, firstDepth);
+		} finally {
+			accumulator.detach();
+		}
+	}
+
+	private SearchResult deepen(ChessMatch match, int maxDepth, long timeMillis, long maxNodes, int firstDepth) {
+		long start = System.nanoTime();
+		this.match = match;
+		this.nodes = 0;
+		this.maxNodes = maxNodes > 0 ? maxNodes : Long.MAX_VALUE;
+		this.deadline = timeMillis > 0 ? start + timeMillis * 1_000_000 : Long.MAX_VALUE;
+		prepare();
+
+		int depthLimit = maxDepth > 0 ? Math.min(maxDepth, MAX_PLY - 1) : MAX_PLY - 1;
+		int bestMove = Move.NONE;
+		int bestScore = 0;
+		int completed = 0;
+
+		MoveList rootMoves = moveLists[0];
+		match.generateLegalMoves(rootMoves);
+		if (rootMoves.isEmpty()) {
+			return new SearchResult(Move.NONE, match.isCheck() ? -MATE : 0, 0, 0, 0);
+		}
+
+		for (int depth = Math.min(firstDepth, depthLimit); depth <= depthLimit; depth++) {
+			rootBestMove = Move.NONE;
+			int score = negamax(depth, -INFINITE, INFINITE, 0);
+
+			// an interrupted iteration still counts for the root moves it finished, the previous best is searched first
+			if (rootBestMove != Move.NONE) {
+				bestMove = rootBestMove;
+				if (!stopped) bestScore = score;
+			}
+			if (stopped) break;
+			completed = depth;
+
+			long elapsed = System.nanoTime() - start;
+			if (Math.abs(score) >= MATE - MAX_PLY || (timeMillis > 0 && elapsed > timeMillis * 500_000)) break;
+		}
+
+		if (bestMove == Move.NONE) {
+			match.generateLegalMoves(rootMoves);
+			bestMove = rootMoves.get(0);
+		}
+
+		return new SearchResult(bestMove, bestScore, completed, nodes, (System.nanoTime() - start) / 1_000_000);
+	}
+
+	private void prepare() {
+		for (int[] k : killers) {
+			k[0] = Move.NONE;
+			k[1] = Move.NONE;
+		}
+
+		// keep the ordering knowledge of the previous search, but let the new position take over quickly
+		for (int[] h : history) {
+			for (int i = 0; i < h.length; i++) {
+				h[i] >>= 2;
+			}
+		}
+	}
+
+	private int negamax(int depth, int alpha, int beta, int ply) {
+		if (limitReached()) return 0;
+
+		boolean inCheck = match.isCheck();
+		// check extension, so a checked side is never left at the horizon
+		if (inCheck) depth++;
+
+		if (depth <= 0) return quiescence(alpha, beta, ply);
+
+		nodes++;
+		if (ply >= MAX_PLY - 1) return evaluate();
+
+		// a repetition is scored as a draw at once, the side that could avoid it would have
+		if (ply > 0 && (match.getHalfmoveClock() >= 100 || match.isRepetition())) return 0;
+
+		if (ply > 0 && tablebase != null && Long.bitCount(match.getBoard().occupancy()) <= tablebase.getMaxPieces()) {
+			// scored by the distance to mate, so the winning side keeps getting closer to it
+			int result = tablebase.probe(match);
+			if (result == Tablebase.WIN) return TABLEBASE_WIN - ply - tablebase.distanceToMate(match);
+			if (result == Tablebase.LOSS) return -TABLEBASE_WIN + ply + tablebase.distanceToMate(match);
+			if (result == Tablebase.DRAW) return 0;
+		}
+
+		long key = match.positionKey();
+		long entry = table.probe(key);
+		int tableMove = Move.NONE;
+
+		if (entry != 0) {
+			tableMove = TranspositionTable.move(entry);
+
+			if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+				int score = fromTable(TranspositionTable.score(entry), ply);
+				int bound = TranspositionTable.bound(entry);
+
+				if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+						|| (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+					return score;
+				}
+			}
+		}
+
+		MoveList moves = moveLists[ply];
+		match.generateLegalMoves(moves);
+
+		if (moves.isEmpty()) {
+			return inCheck ? -MATE + ply : 0;
+		}
+
+		scoreMoves(moves, ply, tableMove);
+
+		int originalAlpha = alpha;
+		int bestScore = -INFINITE;
+		int bestMove = Move.NONE;
+
+		for (int i = 0; i < moves.size(); i++) {
+			int move = nextMove(moves, ply, i);
+
+			match.makeMove(move);
+			int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+			match.undoMove();
+
+			if (stopped) return 0;
+
+			if (score > bestScore) {
+				bestScore = score;
+				bestMove = move;
+				if (ply == 0) rootBestMove = move;
+
+				if (score > alpha) {
+					alpha = score;
+
+					if (alpha >= beta) {
+						if (!Move.isCapture(move) && !Move.isPromotion(move)) {
+							updateQuietHeuristics(move, depth, ply);
+						}
+						break;
+					}
+				}
+			}
+		}
+
+		int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND
+				: bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+		// a fail low has no reliable best move, the table keeps the one it had
+		table.store(key, bound == TranspositionTable.UPPER_BOUND ? Move.NONE : bestMove, toTable(bestScore, ply),
+				depth, bound);
+
+		return bestScore;
+	}
+
+	private int evaluate() {
+		if (network != null) return network.evaluate(accumulator, match.getCurrentPlayer());
+
+		return Evaluation.evaluate(match, pawnTable);
+	}
+
+	// only captures and promotions until the position is quiet, or every evasion when in check
+	private int quiescence(int alpha, int beta, int ply) {
+		if (limitReached()) return 0;
+
+		nodes++;
+		if (ply >= MAX_PLY - 1) return evaluate();
+
+		MoveList moves = moveLists[ply];
+		boolean inCheck = match.isCheck();
+		int bestScore;
+
+		if (inCheck) {
+			match.generateLegalMoves(moves);
+			if (moves.isEmpty()) return -MATE + ply;
+			bestScore = -INFINITE;
+		} else {
+			int standPat = evaluate();
+			if (standPat >= beta) return standPat;
+			if (standPat > alpha) alpha = standPat;
+			bestScore = standPat;
+			match.generateLegalCaptures(moves);
+		}
+
+		scoreMoves(moves, ply, Move.NONE);
+
+		for (int i = 0; i < moves.size(); i++) {
+			int move = nextMove(moves, ply, i);
+			// SEE pruning: captures that lose material by static exchange score below zero and promotions never do, so
+			// from the first of them on the rest are skipped unless they are the way out of check
+			if (!inCheck && isLosingCapture(moveScores[ply][i])) break;
+
+			match.makeMove(move);
+			int score = -quiescence(-beta, -alpha, ply + 1);
+			match.undoMove();
+
+			if (stopped) return 0;
+
+			if (score > bestScore) {
+				bestScore = score;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) break;
+				}
+			}
+		}
+
+		return bestScore;
+	}
+
+	private boolean limitReached() {
+		if (!stopped && (nodes >= maxNodes || ((nodes & 2047) == 0 && System.nanoTime() >= deadline))) {
+			stopped = true;
+		}
+
+		return stopped;
+	}
+
+	// table move, then captures by MVV-LVA, promotions, killers and the history of the quiet moves
+	private void scoreMoves(MoveList moves, int ply, int tableMove) {
+		ChessBoard board = match.getBoard();
+		int[] scores = moveScores[ply];
+
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			int from = Move.from(move);
+			int to = Move.to(move);
+
+			if (move == tableMove) {
+				scores[i] = TABLE_MOVE_SCORE;
+			} else if (Move.isCapture(move)) {
+				// the en passant target square is empty, the victim is a pawn
+				ChessPiece victim = (ChessPiece) board.piece(to);
+				PieceType attacker = ((ChessPiece) board.piece(from)).getType();
+				int victimValue = victim == null ? Evaluation.value(PieceType.PAWN) : Evaluation.value(victim.getType());
+				int order = victimValue * 8 - attacker.ordinal()
+						+ (Move.isPromotion(move) ? Evaluation.value(Move.promotionType(move)) : 0);
+				// only a capture by a more valuable piece can lose material, those losing it go after the quiet moves
+				boolean losing = Evaluation.value(attacker) > victimValue && match.see(move) < 0;
+				scores[i] = (losing ? -CAPTURE_SCORE : CAPTURE_SCORE) + order;
+			} else if (Move.isPromotion(move)) {
+				scores[i] = PROMOTION_SCORE + Evaluation.value(Move.promotionType(move));
+			} else if (move == killers[ply][0]) {
+				scores[i] = KILLER_SCORE + 1;
+			} else if (move == killers[ply][1]) {
+				scores[i] = KILLER_SCORE;
+			} else {
+				scores[i] = history[from][to];
+			}
+		}
+	}
+
+	// what scoreMoves gives a capture whose static exchange loses material
+	private static boolean isLosingCapture(int score) {
+		return score < 0;
+	}
+
+	// selection sort step, the remaining moves are only ordered as far as the search gets
+	private int nextMove(MoveList moves, int ply, int index) {
+		int[] scores = moveScores[ply];
+		int best = index;
+
+		for (int i = index + 1; i < moves.size(); i++) {
+			if (scores[i] > scores[best]) best = i;
+		}
+
+		int move = moves.get(best);
+		if (best != index) {
+			moves.set(best, moves.get(index));
+			moves.set(index, move);
+			int score = scores[best];
+			scores[best] = scores[index];
+			scores[index] = score;
+		}
+
+		return move;
+	}
+
+	private void updateQuietHeuristics(int move, int depth, int ply) {
+		if (killers[ply][0] != move) {
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = move;
+		}
+
+		int[] fromHistory = history[Move.from(move)];
+		fromHistory[Move.to(move)] += depth * depth;
+
+		if (fromHistory[Move.to(move)] > HISTORY_LIMIT) {
+			for (int[] h : history) {
+				for (int i = 0; i < h.length; i++) {
+					h[i] >>= 1;
+				}
+			}
+		}
+	}
+
+	// mate and tablebase scores are stored relative to the node so they stay valid when reached through another path
+	private static int toTable(int score, int ply) {
+		if (score >= MIN_TABLEBASE_WIN) return score + ply;
+		if (score <= -MIN_TABLEBASE_WIN) return score - ply;
+
+		return score;
+	}
+
+	private static int fromTable(int score, int ply) {
+		if (score >= MIN_TABLEBASE_WIN) return score - ply;
+		if (score <= -MIN_TABLEBASE_WIN) return score + ply;
+
+		return score;
+	}
+}
@@ -0,0 +1,58 @@
+package engine;
+
+import chess.Move;
+
+public class SearchResult {
+	private final int bestMove;
+	private final int score;
+	private final int depth;
+	private final long nodes;
+	private final long millis;
+
+	public SearchResult(int bestMove, int score, int depth, long nodes, long millis) {
+		this.bestMove = bestMove;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.millis = millis;
+	}
+
+	public int getBestMove() {
+		return bestMove;
+	}
+
+	public int getScore() {
+		return score;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getMillis() {
+		return millis;
+	}
+
+	public boolean isMate() {
+		return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+	}
+
+	@Override
+	public String toString() {
+		String value;
+		if (isMate()) {
+			int plies = Search.MATE - Math.abs(score);
+			value = "mate " + (score > 0 ? (plies + 1) / 2 : -(plies / 2));
+		} else {
+			value = "cp " + score;
+		}
+
+		long nps = millis > 0 ? nodes * 1000 / millis : 0;
+		return "depth " + depth + " score " + value + " nodes " + nodes + " nps " + nps + " time " + millis
+				+ " bestmove " + (bestMove == Move.NONE ? "(none)" : Move.toString(bestMove));
+	}
+}
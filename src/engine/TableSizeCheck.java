@@ -0,0 +1,24 @@
+package engine;
+
+// sizes past the array limit are capped instead of overflowing, checked without allocating the tables
+public final class TableSizeCheck {
+
+	private TableSizeCheck() {
+	}
+
+	public static boolean run() {
+		boolean ok = true;
+
+		for (ReplacementPolicy policy : ReplacementPolicy.values()) {
+			for (int megabytes : new int[] { 1, 1024, 16384, 32768, Integer.MAX_VALUE }) {
+				long longs = 2L * TranspositionTable.slots(megabytes, policy);
+				boolean passed = longs > 0 && longs <= Integer.MAX_VALUE - 8 && longs * 8 <= (long) megabytes << 20;
+				ok &= passed;
+				System.out.println("table " + megabytes + " MB " + policy + (passed ? " OK" : " FAILED") + ": " + longs
+						+ " longs");
+			}
+		}
+
+		return ok;
+	}
+}
@@ -0,0 +1,240 @@
+package engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import chess.ChessBoard;
+import chess.ChessMatch;
+import chess.Color;
+import chess.PieceType;
+
+// distance to mate tables of the king and piece against king endings, read from files written by
+// TablebaseGenerator. File layout: magic, piece type ordinal, positions, positions per block, block count, block
+// offsets (longs), then the deflated blocks holding one byte per position. Probes don't lock: every thread keeps its
+// own Inflater and its own cache of the blocks it used last
+public class Tablebase implements Closeable {
+	public static final int LOSS = -1;
+	public static final int DRAW = 0;
+	public static final int WIN = 1;
+	// the position isn't covered by the loaded tables
+	public static final int UNKNOWN = 2;
+
+	static final int MAGIC = 0x43544232;
+	static final int POSITIONS = 2 * 64 * 64 * 64;
+	static final int BLOCK_SIZE = 8192;
+	static final int HEADER_SIZE = 20;
+
+	// stored values: 0 for a draw, otherwise one more than the plies to mate with best play, which are odd when the
+	// side to move mates and even when it is mated
+	static final int STORED_DRAW = 0;
+	static final int MAX_STORED = 254;
+	static final int STORED_INVALID = 255;
+
+	private static final String LETTERS = "PNBRQ";
+
+	private final Table[] tables = new Table[5];
+	private final int maxPieces;
+	// the Inflaters hold native memory, which the garbage collector releases when their thread ends
+	private final ThreadLocal<Reader> readers;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	// opens the tables found in the directory, every probing thread keeping up to cacheBlocks decompressed blocks
+	public Tablebase(Path directory, int cacheBlocks) throws IOException {
+		int loaded = 0;
+		try {
+			for (PieceType type : PieceType.values()) {
+				if (type == PieceType.KING) continue;
+
+				Path file = directory.resolve(fileName(type));
+				if (Files.exists(file)) {
+					tables[type.ordinal()] = new Table(file);
+					loaded++;
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			close();
+			throw e;
+		}
+
+		// two bare kings are a draw even without tables
+		this.maxPieces = loaded > 0 ? 3 : 2;
+		this.readers = ThreadLocal.withInitial(() -> new Reader(cacheBlocks));
+	}
+
+	public int getMaxPieces() {
+		return maxPieces;
+	}
+
+	// WIN, DRAW or LOSS for the side to move, UNKNOWN when no table covers the position
+	public int probe(ChessMatch match) {
+		int value = stored(match);
+		if (isWin(value)) return WIN;
+		if (isLoss(value)) return LOSS;
+
+		return value == STORED_DRAW ? DRAW : UNKNOWN;
+	}
+
+	// plies to mate with best play for both sides in a won or lost position, -1 for draws and unknown positions
+	public int distanceToMate(ChessMatch match) {
+		int value = stored(match);
+		if (value == STORED_DRAW || value == STORED_INVALID) return -1;
+
+		return value - 1;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (Table table : tables) {
+			if (table != null) table.channel.close();
+		}
+	}
+
+	static String fileName(PieceType type) {
+		return "K" + LETTERS.charAt(type.ordinal()) + "vK.dtm";
+	}
+
+	static boolean isWin(int stored) {
+		return stored != STORED_DRAW && stored != STORED_INVALID && (stored - 1) % 2 == 1;
+	}
+
+	static boolean isLoss(int stored) {
+		return stored != STORED_DRAW && stored != STORED_INVALID && (stored - 1) % 2 == 0;
+	}
+
+	private int stored(ChessMatch match) {
+		ChessBoard board = match.getBoard();
+		int pieces = Long.bitCount(board.occupancy());
+
+		if (pieces == 2) return STORED_DRAW;
+		if (pieces != 3 || match.getCastlingRights() != 0) return STORED_INVALID;
+
+		PieceType type = pieceType(board);
+		Table table = tables[type.ordinal()];
+		if (table == null) return STORED_INVALID;
+
+		return read(table, type, index(board, match.getCurrentPlayer()));
+	}
+
+	// the one piece besides the kings
+	static PieceType pieceType(ChessBoard board) {
+		int square = Long.numberOfTrailingZeros(board.occupancy() & ~board.bitboard(PieceType.KING));
+
+		for (PieceType type : PieceType.values()) {
+			if ((board.bitboard(type) & (1L << square)) != 0) return type;
+		}
+
+		throw new IllegalStateException("No piece besides the kings");
+	}
+
+	// index seen from the side that owns the piece, rows mirrored when that is black so its pawn moves up the board
+	static int index(ChessBoard board, Color sideToMove) {
+		long others = board.occupancy() & ~board.bitboard(PieceType.KING);
+		Color strong = (board.occupancy(Color.WHITE) & others) != 0 ? Color.WHITE : Color.BLACK;
+		Color weak = strong == Color.WHITE ? Color.BLACK : Color.WHITE;
+		int flip = strong == Color.WHITE ? 0 : 56;
+
+		int side = sideToMove == strong ? 0 : 1;
+		int strongKing = board.kingSquare(strong) ^ flip;
+		int piece = Long.numberOfTrailingZeros(others) ^ flip;
+		int weakKing = board.kingSquare(weak) ^ flip;
+
+		return ((side * 64 + strongKing) * 64 + piece) * 64 + weakKing;
+	}
+
+	private int read(Table table, PieceType type, int index) {
+		int block = index / BLOCK_SIZE;
+		Integer key = type.ordinal() * table.blockCount + block;
+		Reader reader = readers.get();
+		byte[] values = reader.cache.get(key);
+
+		if (values == null) {
+			misses.increment();
+			values = table.inflate(block, reader.inflater);
+			reader.cache.put(key, values);
+		} else {
+			hits.increment();
+		}
+
+		return values[index % BLOCK_SIZE] & 0xFF;
+	}
+
+	// what one thread needs to probe: its Inflater and its least recently used blocks
+	private static class Reader {
+		private final Inflater inflater = new Inflater();
+		private final Map<Integer, byte[]> cache;
+
+		Reader(int cacheBlocks) {
+			cache = new LinkedHashMap<Integer, byte[]>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+					return size() > cacheBlocks;
+				}
+			};
+		}
+	}
+
+	private static class Table {
+		private final FileChannel channel;
+		private final MappedByteBuffer data;
+		private final int blockCount;
+
+		Table(Path file) throws IOException {
+			channel = FileChannel.open(file, StandardOpenOption.READ);
+			try {
+				if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+					throw new IOException("Not a tablebase file: " + file);
+				}
+				data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+				if (data.getInt(0) != MAGIC || data.getInt(8) != POSITIONS || data.getInt(12) != BLOCK_SIZE) {
+					throw new IOException("Not a tablebase file: " + file);
+				}
+				blockCount = data.getInt(16);
+			} catch (IOException | RuntimeException e) {
+				channel.close();
+				throw e;
+			}
+		}
+
+		byte[] inflate(int block, Inflater inflater) {
+			long start = data.getLong(HEADER_SIZE + block * 8);
+			long end = data.getLong(HEADER_SIZE + (block + 1) * 8);
+
+			ByteBuffer input = data.duplicate();
+			input.position((int) start).limit((int) end);
+
+			byte[] values = new byte[BLOCK_SIZE];
+			try {
+				inflater.reset();
+				inflater.setInput(input);
+				inflater.inflate(values);
+			} catch (DataFormatException e) {
+				throw new IllegalStateException("Corrupt tablebase block " + block, e);
+			}
+
+			return values;
+		}
+	}
+}
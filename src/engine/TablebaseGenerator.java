@@ -0,0 +1,230 @@
+package engine;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import chess.ChessBoard;
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Color;
+import chess.MoveList;
+import chess.PieceType;
+
+// builds the king and piece against king tables by retrograde iteration over the legal move graph, one ply of
+// distance to mate per pass
+public class TablebaseGenerator {
+	private static final String LETTERS = "PNBRQ";
+
+	// results of the tables built so far, pawn endings need the ones of the pieces they promote to
+	private final byte[][] results = new byte[5][];
+
+	public void generateAll(Path directory) throws IOException {
+		Files.createDirectories(directory);
+
+		for (PieceType type : new PieceType[] { PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT,
+				PieceType.PAWN }) {
+			write(directory.resolve(Tablebase.fileName(type)), type, generate(type));
+		}
+	}
+
+	public byte[] generate(PieceType type) {
+		byte[] values = new byte[Tablebase.POSITIONS];
+		// internal successors of every position, the ones with the same material
+		int[] firstSuccessor = new int[Tablebase.POSITIONS + 1];
+		int[] successors = new int[1 << 20];
+		int count = 0;
+		// what the moves leaving the table give, known from the start: the fewest plies to a win and the most plies
+		// to a loss through one of them, 0 when there is none
+		int[] outsideWin = new int[Tablebase.POSITIONS];
+		int[] outsideLoss = new int[Tablebase.POSITIONS];
+		// a draw is available or the side to move is stalemated, so the position can't be lost
+		boolean[] drawn = new boolean[Tablebase.POSITIONS];
+		int longestOutside = 0;
+
+		ChessMatch match = new ChessMatch();
+		MoveList moves = new MoveList();
+		char[] fen = new char[80];
+
+		for (int index = 0; index < Tablebase.POSITIONS; index++) {
+			firstSuccessor[index] = count;
+			values[index] = (byte) Tablebase.STORED_INVALID;
+
+			if (!setPosition(match, type, index, fen)) continue;
+
+			// a draw until the iteration below finds a forced mate
+			values[index] = Tablebase.STORED_DRAW;
+			match.generateLegalMoves(moves);
+			if (moves.isEmpty()) {
+				if (match.isCheck()) {
+					values[index] = stored(0);
+				} else {
+					drawn[index] = true;
+				}
+				continue;
+			}
+
+			for (int i = 0; i < moves.size(); i++) {
+				match.makeMove(moves.get(i));
+				int outside = outsideResult(match, type);
+
+				if (outside < 0) {
+					if (count == successors.length) successors = Arrays.copyOf(successors, count * 2);
+					successors[count++] = Tablebase.index(match.getBoard(), match.getCurrentPlayer());
+				} else if (Tablebase.isLoss(outside)) {
+					// stored values are plies plus one, so the move's own ply makes outside the distance from here
+					if (outsideWin[index] == 0 || outside < outsideWin[index]) outsideWin[index] = outside;
+					longestOutside = Math.max(longestOutside, outside);
+				} else if (Tablebase.isWin(outside)) {
+					outsideLoss[index] = Math.max(outsideLoss[index], outside);
+					longestOutside = Math.max(longestOutside, outside);
+				} else {
+					drawn[index] = true;
+				}
+				match.undoMove();
+			}
+		}
+		firstSuccessor[Tablebase.POSITIONS] = count;
+
+		// pass n settles the positions mated in n plies when n is even and the ones that mate in n plies when it is
+		// odd. A win in n needs a successor lost in n - 1, settled by the pass before; a loss in n needs every
+		// successor won, the longest in n - 1. Past the outside distances, two passes without news end the search
+		int lastChange = 0;
+		for (int plies = 1; plies <= longestOutside + 1 || plies <= lastChange + 2; plies++) {
+			if (plies > Tablebase.MAX_STORED - 1) {
+				throw new IllegalStateException("Mates longer than " + (Tablebase.MAX_STORED - 1) + " plies");
+			}
+			boolean wins = plies % 2 == 1;
+
+			for (int index = 0; index < Tablebase.POSITIONS; index++) {
+				if (values[index] != Tablebase.STORED_DRAW) continue;
+
+				if (wins) {
+					boolean win = outsideWin[index] == plies;
+					for (int i = firstSuccessor[index]; i < firstSuccessor[index + 1] && !win; i++) {
+						win = (values[successors[i]] & 0xFF) == stored(plies - 1);
+					}
+					if (win) {
+						values[index] = stored(plies);
+						lastChange = plies;
+					}
+				} else if (!drawn[index] && outsideWin[index] == 0 && outsideLoss[index] <= plies) {
+					boolean allWon = true;
+					for (int i = firstSuccessor[index]; i < firstSuccessor[index + 1] && allWon; i++) {
+						int next = values[successors[i]] & 0xFF;
+						allWon = Tablebase.isWin(next) && next < stored(plies);
+					}
+					if (allWon) {
+						values[index] = stored(plies);
+						lastChange = plies;
+					}
+				}
+			}
+		}
+
+		results[type.ordinal()] = values;
+		return values;
+	}
+
+	private static byte stored(int plies) {
+		return (byte) (plies + 1);
+	}
+
+	// stored value for the side to move after a move that left the table, -1 when it didn't
+	private int outsideResult(ChessMatch match, PieceType type) {
+		ChessBoard board = match.getBoard();
+		if (Long.bitCount(board.occupancy()) == 2) return Tablebase.STORED_DRAW;
+
+		PieceType now = Tablebase.pieceType(board);
+		if (now == type) return -1;
+
+		// #especial move promotion, into a table built before this one
+		byte[] promoted = results[now.ordinal()];
+		if (promoted == null) {
+			throw new IllegalStateException("The " + now + " table is needed before the " + type + " one");
+		}
+		return promoted[Tablebase.index(board, match.getCurrentPlayer())] & 0xFF;
+	}
+
+	// false for positions that can't occur: overlapping pieces, pawns on the last ranks, or the side not to move
+	// in check
+	private static boolean setPosition(ChessMatch match, PieceType type, int index, char[] fen) {
+		int weakKing = index & 63;
+		int piece = (index >>> 6) & 63;
+		int strongKing = (index >>> 12) & 63;
+		boolean whiteToMove = (index >>> 18) == 0;
+
+		if (weakKing == piece || weakKing == strongKing || piece == strongKing) return false;
+		if (type == PieceType.PAWN && (piece < 8 || piece >= 56)) return false;
+
+		int length = 0;
+		for (int row = 0; row < 8; row++) {
+			int empty = 0;
+			for (int column = 0; column < 8; column++) {
+				int square = row * 8 + column;
+				char c = square == strongKing ? 'K' : square == weakKing ? 'k'
+						: square == piece ? LETTERS.charAt(type.ordinal()) : 0;
+				if (c == 0) {
+					empty++;
+				} else {
+					if (empty > 0) fen[length++] = (char) ('0' + empty);
+					empty = 0;
+					fen[length++] = c;
+				}
+			}
+			if (empty > 0) fen[length++] = (char) ('0' + empty);
+			if (row < 7) fen[length++] = '/';
+		}
+		fen[length++] = ' ';
+		fen[length++] = whiteToMove ? 'w' : 'b';
+
+		try {
+			match.setFen(new String(fen, 0, length));
+		} catch (ChessException e) {
+			return false;
+		}
+
+		ChessBoard board = match.getBoard();
+		Color waiting = whiteToMove ? Color.BLACK : Color.WHITE;
+		return !board.isSquareAttacked(board.kingSquare(waiting), match.getCurrentPlayer());
+	}
+
+	private static void write(Path file, PieceType type, byte[] values) throws IOException {
+		int blocks = Tablebase.POSITIONS / Tablebase.BLOCK_SIZE;
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		long[] offsets = new long[blocks + 1];
+		long start = Tablebase.HEADER_SIZE + 8L * (blocks + 1);
+
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		byte[] buffer = new byte[Tablebase.BLOCK_SIZE];
+
+		for (int block = 0; block < blocks; block++) {
+			offsets[block] = start + compressed.size();
+			deflater.reset();
+			deflater.setInput(values, block * Tablebase.BLOCK_SIZE, Tablebase.BLOCK_SIZE);
+			deflater.finish();
+			while (!deflater.finished()) {
+				compressed.write(buffer, 0, deflater.deflate(buffer));
+			}
+		}
+		offsets[blocks] = start + compressed.size();
+		deflater.end();
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeInt(Tablebase.MAGIC);
+			out.writeInt(type.ordinal());
+			out.writeInt(Tablebase.POSITIONS);
+			out.writeInt(Tablebase.BLOCK_SIZE);
+			out.writeInt(blocks);
+			for (long offset : offsets) {
+				out.writeLong(offset);
+			}
+			compressed.writeTo(out);
+		}
+	}
+}
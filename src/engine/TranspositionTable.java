@@ -0,0 +1,152 @@
+package engine;
+
+import java.util.Arrays;
+
+public class TranspositionTable {
+	public static final int EXACT = 1;
+	public static final int LOWER_BOUND = 2;
+	public static final int UPPER_BOUND = 3;
+
+	// 8 GB, the largest power of two number of longs an array can hold
+	private static final long MAX_LONGS = 1L << 30;
+
+	// each entry is two longs, the key xor'ed with the data and the data itself, so a torn write from another
+	// thread fails the key check instead of returning mixed up fields
+	private final long[] table;
+	private final int slotsPerBucket;
+	private final long bucketMask;
+	private final ReplacementPolicy policy;
+	private int generation;
+
+	public TranspositionTable(int megabytes) {
+		this(megabytes, ReplacementPolicy.DEPTH_PREFERRED);
+	}
+
+	public TranspositionTable(int megabytes, ReplacementPolicy policy) {
+		this.policy = policy;
+		this.slotsPerBucket = slotsPerBucket(policy);
+
+		long buckets = slots(megabytes, policy) / slotsPerBucket;
+		this.bucketMask = buckets - 1;
+		this.table = new long[(int) (buckets * slotsPerBucket * 2)];
+	}
+
+	// entries a table of that size holds: the largest power of two number of buckets that fits, each slot being
+	// 16 bytes, capped so the two longs per slot stay within the array size limit
+	static int slots(int megabytes, ReplacementPolicy policy) {
+		if (megabytes < 1) throw new IllegalArgumentException("The table needs at least 1 MB");
+
+		int slotsPerBucket = slotsPerBucket(policy);
+		long buckets = Long.highestOneBit(((long) megabytes << 20) / (16L * slotsPerBucket));
+		buckets = Math.min(buckets, MAX_LONGS / (slotsPerBucket * 2));
+
+		return (int) (buckets * slotsPerBucket);
+	}
+
+	private static int slotsPerBucket(ReplacementPolicy policy) {
+		return policy == ReplacementPolicy.DEPTH_PREFERRED ? 2 : 1;
+	}
+
+	public ReplacementPolicy getPolicy() {
+		return policy;
+	}
+
+	public int sizeInMegabytes() {
+		return (int) (((long) table.length * 8) >> 20);
+	}
+
+	// marks older entries as replaceable, called once per search
+	public void newSearch() {
+		generation = (generation + 1) & 0x3F;
+	}
+
+	public void clear() {
+		Arrays.fill(table, 0L);
+		generation = 0;
+	}
+
+	// the packed entry data, or 0 when the position isn't stored
+	public long probe(long key) {
+		int index = index(key);
+
+		for (int slot = 0; slot < slotsPerBucket; slot++, index += 2) {
+			long data = table[index + 1];
+			if ((table[index] ^ data) == key && data != 0) {
+				return data;
+			}
+		}
+
+		return 0;
+	}
+
+	public void store(long key, int move, int score, int depth, int bound) {
+		int index = index(key);
+
+		if (policy == ReplacementPolicy.DEPTH_PREFERRED) {
+			long data = table[index + 1];
+			boolean sameKey = (table[index] ^ data) == key;
+
+			// the deep slot keeps the deepest result of the current search, or takes over entries of older ones
+			if (data == 0 || sameKey || depth >= depth(data) || generation(data) != generation) {
+				if (sameKey && move == 0) move = move(data);
+				write(index, key, pack(move, score, depth, bound));
+				return;
+			}
+
+			index += 2;
+		}
+
+		if (move == 0) {
+			long data = table[index + 1];
+			if ((table[index] ^ data) == key) move = move(data);
+		}
+		write(index, key, pack(move, score, depth, bound));
+	}
+
+	// permille of slots written during the current search, sampled over the first thousand
+	public int hashfull() {
+		int used = 0;
+		int samples = Math.min(1000, table.length / 2);
+
+		for (int i = 0; i < samples; i++) {
+			long data = table[i * 2 + 1];
+			if (data != 0 && generation(data) == generation) used++;
+		}
+
+		return samples == 0 ? 0 : used * 1000 / samples;
+	}
+
+	public static int move(long data) {
+		return (int) (data & 0xFFFF);
+	}
+
+	public static int score(long data) {
+		return (short) (data >>> 16);
+	}
+
+	public static int depth(long data) {
+		return (int) ((data >>> 32) & 0xFF);
+	}
+
+	public static int bound(long data) {
+		return (int) ((data >>> 40) & 0x3);
+	}
+
+	private static int generation(long data) {
+		return (int) ((data >>> 42) & 0x3F);
+	}
+
+	private long pack(int move, int score, int depth, int bound) {
+		return (move & 0xFFFFL) | ((score & 0xFFFFL) << 16) | ((long) Math.max(0, Math.min(depth, 255)) << 32)
+				| ((long) bound << 40) | ((long) generation << 42);
+	}
+
+	private void write(int index, long key, long data) {
+		table[index] = key ^ data;
+		table[index + 1] = data;
+	}
+
+	private int index(long key) {
+		return (int) (key & bucketMask) * slotsPerBucket * 2;
+	}
+}
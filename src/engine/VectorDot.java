@@ -0,0 +1,133 @@
+package engine;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+// the clipped ReLU dot product of Network.evaluate on the incubating Vector API. The tree builds for Java 11, so
+// the API is bound through method handles when the runtime has it (a JDK 17 or later started with
+// --add-modules jdk.incubator.vector); otherwise AVAILABLE is false and the network keeps its scalar loop.
+// Constant handles are inlined by the JIT, which then compiles the vector operations to SIMD instructions
+final class VectorDot {
+	static final boolean AVAILABLE;
+
+	// ShortVector.SPECIES_PREFERRED, and IntVector's species of the same width holding half as many lanes
+	private static final Object SHORTS;
+	private static final Object INTS;
+	private static final int LANES;
+
+	// each typed over Object for the vector and species classes, which can't be named here
+	private static final MethodHandle FROM_ARRAY;
+	private static final MethodHandle MAX;
+	private static final MethodHandle MIN;
+	private static final MethodHandle TO_INTS;
+	private static final MethodHandle ZERO;
+	private static final MethodHandle ADD;
+	private static final MethodHandle MUL;
+	private static final MethodHandle SUM;
+
+	static {
+		Object shorts = null;
+		Object ints = null;
+		int lanes = 0;
+		MethodHandle fromArray = null;
+		MethodHandle max = null;
+		MethodHandle min = null;
+		MethodHandle toInts = null;
+		MethodHandle zero = null;
+		MethodHandle add = null;
+		MethodHandle mul = null;
+		MethodHandle sum = null;
+
+		try {
+			String api = "jdk.incubator.vector.";
+			Class<?> species = Class.forName(api + "VectorSpecies");
+			Class<?> vector = Class.forName(api + "Vector");
+			Class<?> shortVector = Class.forName(api + "ShortVector");
+			Class<?> intVector = Class.forName(api + "IntVector");
+			Class<?> operators = Class.forName(api + "VectorOperators");
+			Class<?> conversion = Class.forName(api + "VectorOperators$Conversion");
+			Class<?> associative = Class.forName(api + "VectorOperators$Associative");
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+			shorts = shortVector.getField("SPECIES_PREFERRED").get(null);
+			lanes = (Integer) species.getMethod("length").invoke(shorts);
+			ints = species.getMethod("of", Class.class, Class.forName(api + "VectorShape"))
+					.invoke(null, int.class, species.getMethod("vectorShape").invoke(shorts));
+			Object shortToInt = operators.getField("S2I").get(null);
+			Object plus = operators.getField("ADD").get(null);
+
+			fromArray = lookup.findStatic(shortVector, "fromArray",
+					MethodType.methodType(shortVector, species, short[].class, int.class))
+					.asType(MethodType.methodType(Object.class, Object.class, short[].class, int.class));
+			max = lookup.findVirtual(shortVector, "max", MethodType.methodType(shortVector, short.class))
+					.asType(MethodType.methodType(Object.class, Object.class, short.class));
+			min = lookup.findVirtual(shortVector, "min", MethodType.methodType(shortVector, short.class))
+					.asType(MethodType.methodType(Object.class, Object.class, short.class));
+			// widens lanes [part * LANES / 2, (part + 1) * LANES / 2) to ints
+			toInts = MethodHandles.insertArguments(lookup.findVirtual(shortVector, "convertShape",
+					MethodType.methodType(vector, conversion, species, int.class)), 1, shortToInt, ints)
+					.asType(MethodType.methodType(Object.class, Object.class, int.class));
+			zero = MethodHandles.insertArguments(lookup.findStatic(intVector, "zero",
+					MethodType.methodType(intVector, species)), 0, ints)
+					.asType(MethodType.methodType(Object.class));
+			add = lookup.findVirtual(intVector, "add", MethodType.methodType(intVector, vector))
+					.asType(MethodType.methodType(Object.class, Object.class, Object.class));
+			mul = lookup.findVirtual(intVector, "mul", MethodType.methodType(intVector, vector))
+					.asType(MethodType.methodType(Object.class, Object.class, Object.class));
+			sum = MethodHandles.insertArguments(lookup.findVirtual(intVector, "reduceLanes",
+					MethodType.methodType(int.class, associative)), 1, plus)
+					.asType(MethodType.methodType(int.class, Object.class));
+		} catch (ReflectiveOperationException | LinkageError e) {
+			lanes = 0;
+		}
+
+		// a vector too narrow to split in two int halves is no better than the scalar loop
+		AVAILABLE = lanes >= 4;
+		SHORTS = shorts;
+		INTS = ints;
+		LANES = lanes;
+		FROM_ARRAY = fromArray;
+		MAX = max;
+		MIN = min;
+		TO_INTS = toInts;
+		ZERO = zero;
+		ADD = add;
+		MUL = mul;
+		SUM = sum;
+	}
+
+	private VectorDot() {
+	}
+
+	// sum of min(max(values[i], 0), clip) * weights[offset + i] over the first length values
+	static int clippedDot(short[] values, short[] weights, int offset, int length, short clip) {
+		int end = length - length % LANES;
+		int sum = 0;
+
+		try {
+			Object total = (Object) ZERO.invokeExact();
+			for (int i = 0; i < end; i += LANES) {
+				Object v = (Object) FROM_ARRAY.invokeExact(SHORTS, values, i);
+				v = (Object) MIN.invokeExact((Object) MAX.invokeExact(v, (short) 0), clip);
+				Object w = (Object) FROM_ARRAY.invokeExact(SHORTS, weights, offset + i);
+
+				Object low = (Object) MUL.invokeExact((Object) TO_INTS.invokeExact(v, 0),
+						(Object) TO_INTS.invokeExact(w, 0));
+				Object high = (Object) MUL.invokeExact((Object) TO_INTS.invokeExact(v, 1),
+						(Object) TO_INTS.invokeExact(w, 1));
+				total = (Object) ADD.invokeExact(total, (Object) ADD.invokeExact(low, high));
+			}
+			sum = (int) SUM.invokeExact(total);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException("Vector API call failed", e);
+		}
+
+		for (int i = end; i < length; i++) {
+			sum += Math.min(Math.max(values[i], 0), clip) * weights[offset + i];
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,144 @@
+package server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import chess.ChessException;
+
+// plain text HTTP front end of a SessionManager, bound to the loopback interface:
+// POST /games (optional FEN body) creates a game and answers its id
+// GET /games/{id} answers the FEN and the status
+// POST /games/{id}/moves with a move like e2e4 plays it and answers the new FEN and status
+// DELETE /games/{id} ends the game
+public class GameServer implements AutoCloseable {
+	private static final int MAX_BODY = 256;
+
+	private final SessionManager sessions;
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final ScheduledExecutorService evictor;
+
+	// port 0 picks a free one; games idle for idleMillis are evicted to snapshots
+	public GameServer(SessionManager sessions, int port, long idleMillis) throws IOException {
+		this.sessions = sessions;
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+		this.executor = connectionExecutor();
+		server.setExecutor(executor);
+		server.createContext("/games", this::handle);
+
+		this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "session-evictor");
+			t.setDaemon(true);
+			return t;
+		});
+		long period = Math.max(idleMillis / 2, 1);
+		evictor.scheduleWithFixedDelay(() -> sessions.evictIdle(idleMillis), period, period, TimeUnit.MILLISECONDS);
+	}
+
+	public void start() {
+		server.start();
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	public SessionManager getSessions() {
+		return sessions;
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		evictor.shutdownNow();
+		executor.shutdownNow();
+	}
+
+	// a virtual thread per exchange where the runtime has them (Java 21), looked up reflectively so the tree still
+	// builds for Java 11, where a cached pool of platform threads takes their place
+	private static ExecutorService connectionExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(r -> {
+				Thread t = new Thread(r, "game-connection");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			String method = exchange.getRequestMethod();
+			// "", "games", id, "moves"
+			String[] parts = exchange.getRequestURI().getPath().split("/");
+			String body = readBody(exchange.getRequestBody());
+
+			// the context matches every path starting with /games, /gamesX included
+			if (parts.length < 2 || !parts[1].equals("games")) {
+				send(exchange, 404, "There's no such resource\n");
+				return;
+			}
+
+			if (parts.length == 2 && method.equals("POST")) {
+				Session session = body.isEmpty() ? sessions.create() : sessions.create(body);
+				send(exchange, 201, session.getId() + "\n");
+				return;
+			}
+
+			Session session = parts.length >= 3 ? sessions.get(parts[2]) : null;
+			if (session == null) {
+				send(exchange, 404, "There's no such game\n");
+			} else if (parts.length == 3 && method.equals("GET")) {
+				send(exchange, 200, session.state());
+			} else if (parts.length == 3 && method.equals("DELETE")) {
+				sessions.remove(session.getId());
+				send(exchange, 204, null);
+			} else if (parts.length == 4 && parts[3].equals("moves") && method.equals("POST")) {
+				send(exchange, 200, session.move(body));
+			} else {
+				send(exchange, 405, "Unsupported request\n");
+			}
+		} catch (ChessException e) {
+			send(exchange, 400, e.getMessage() + "\n");
+		} catch (RuntimeException e) {
+			send(exchange, 500, "Internal error\n");
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private static String readBody(InputStream in) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		byte[] buffer = new byte[MAX_BODY];
+		int read;
+		while ((read = in.read(buffer)) > 0) {
+			body.write(buffer, 0, read);
+			if (body.size() > MAX_BODY) throw new ChessException("Request body too long");
+		}
+
+		return new String(body.toByteArray(), StandardCharsets.US_ASCII).trim();
+	}
+
+	private static void send(HttpExchange exchange, int status, String text) throws IOException {
+		byte[] bytes = text == null ? new byte[0] : text.getBytes(StandardCharsets.US_ASCII);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=us-ascii");
+		exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package server;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.ChessPosition;
+import chess.PieceType;
+import chess.Snapshot;
+
+// one hosted game. Moves on it are serialized by its own lock, so games never wait on each other; an idle game
+// drops its ChessMatch and keeps only a snapshot until it is played again
+public class Session {
+	private final String id;
+	// a ReentrantLock rather than synchronized, which would pin a virtual thread to its carrier while it waits
+	private final ReentrantLock lock = new ReentrantLock();
+	private ChessMatch match;
+	private Snapshot snapshot;
+	private volatile long lastAccess;
+
+	Session(String id, ChessMatch match) {
+		this.id = id;
+		this.match = match;
+		this.lastAccess = System.currentTimeMillis();
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public long getLastAccess() {
+		return lastAccess;
+	}
+
+	public boolean isEvicted() {
+		lock.lock();
+		try {
+			return match == null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// coordinate notation, e2e4 or e7e8q, returns the state after the move
+	public String move(String move) {
+		if (move.length() != 4 && move.length() != 5) {
+			throw new ChessException("Moves are written as origin and target squares, e.g. e2e4 or e7e8q");
+		}
+
+		lock.lock();
+		try {
+			ChessMatch match = match();
+			if (match.isCheckMate() || match.isDraw()) {
+				throw new ChessException("The match is over");
+			}
+
+			ChessPosition origin = new ChessPosition(move.charAt(0), move.charAt(1) - '0');
+			ChessPosition target = new ChessPosition(move.charAt(2), move.charAt(3) - '0');
+
+			// #especial move promotion, the fifth letter is checked before the board changes
+			if (move.length() == 5) {
+				if (!promotes(match, origin, target)) {
+					throw new ChessException("Only a pawn reaching the last rank is promoted: " + move);
+				}
+				if ("qrbn".indexOf(move.charAt(4)) < 0) {
+					throw new ChessException("A pawn is promoted to q, r, b or n: " + move);
+				}
+			}
+			match.performChessMove(origin, target);
+
+			// #especial move promotion
+			if (match.getPromoted() != null && move.length() == 5) {
+				match.replacePromotedPiece(String.valueOf(Character.toUpperCase(move.charAt(4))));
+			}
+
+			return state(match);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public String state() {
+		lock.lock();
+		try {
+			return state(match());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// keeps the compact snapshot instead of the match when the game was idle since the given time, false when it
+	// is busy or already evicted
+	boolean evictIfIdle(long idleSince) {
+		if (!lock.tryLock()) return false;
+		try {
+			if (match == null || lastAccess > idleSince) return false;
+
+			snapshot = match.snapshot();
+			match = null;
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// the live match, brought back from the snapshot when it was evicted; called holding the lock
+	private ChessMatch match() {
+		lastAccess = System.currentTimeMillis();
+		if (match == null) {
+			match = ChessMatch.fromSnapshot(snapshot);
+			snapshot = null;
+		}
+
+		return match;
+	}
+
+	// a pawn moving to a last rank, legal or not
+	private static boolean promotes(ChessMatch match, ChessPosition origin, ChessPosition target) {
+		int square = (8 - origin.getRow()) * 8 + origin.getColumn() - 'a';
+		boolean pawn = (match.getBoard().bitboard(PieceType.PAWN) & (1L << square)) != 0;
+
+		return pawn && (target.getRow() == 8 || target.getRow() == 1);
+	}
+
+	// the FEN and the status of the game, one per line
+	private static String state(ChessMatch match) {
+		String status;
+		if (match.isCheckMate()) {
+			status = "checkmate";
+		} else if (match.isStalemate()) {
+			status = "stalemate";
+		} else if (match.isThreefoldRepetition()) {
+			status = "threefold repetition";
+		} else if (match.isFiftyMoveDraw()) {
+			status = "fifty moves";
+		} else if (match.isCheck()) {
+			status = "check";
+		} else {
+			status = "playing";
+		}
+
+		return match.toFen() + "\n" + status + "\n";
+	}
+}
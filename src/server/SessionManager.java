@@ -0,0 +1,54 @@
+package server;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import chess.ChessMatch;
+
+// the hosted games by id. The map is the only structure shared by all games and it is concurrent, so creating,
+// finding or playing a game never takes a global lock
+public class SessionManager {
+	private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<String, Session>();
+
+	public Session create() {
+		return create(new ChessMatch());
+	}
+
+	public Session create(String fen) {
+		return create(ChessMatch.fromFen(fen));
+	}
+
+	private Session create(ChessMatch match) {
+		String id = UUID.randomUUID().toString();
+		Session session = new Session(id, match);
+		sessions.put(id, session);
+
+		return session;
+	}
+
+	// null when there's no such game
+	public Session get(String id) {
+		return sessions.get(id);
+	}
+
+	public boolean remove(String id) {
+		return sessions.remove(id) != null;
+	}
+
+	public int size() {
+		return sessions.size();
+	}
+
+	// turns the games untouched for idleMillis into snapshots, returns how many were evicted
+	public int evictIdle(long idleMillis) {
+		long idleSince = System.currentTimeMillis() - idleMillis;
+		int evicted = 0;
+
+		for (Session session : sessions.values()) {
+			if (session.getLastAccess() <= idleSince && session.evictIfIdle(idleSince)) evicted++;
+		}
+
+		return evicted;
+	}
+}